@@ -0,0 +1,89 @@
+package io.configrd.client;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Generates configs of a given size for the benchmarks. Every index has a string and an int
+ * property, i.e. property.1.name=value-1 and property.1.size=1.
+ */
+final class BenchmarkConfigs {
+
+  static final String PATH = "bench";
+
+  private BenchmarkConfigs() {}
+
+  static String nameKey(int i) {
+    return "property." + i + ".name";
+  }
+
+  static String sizeKey(int i) {
+    return "property." + i + ".size";
+  }
+
+  /**
+   * @param keys number of keys, rounded down to an even number
+   * @param format properties, yaml or json
+   * @return root directory holding the configs below {@link #PATH}
+   * @throws IOException
+   */
+  static Path write(int keys, String format) throws IOException {
+
+    Path root = Files.createTempDirectory("configrd-bench");
+    Path file = root.resolve(PATH).resolve("default." + format);
+    Files.createDirectories(file.getParent());
+
+    try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      w.write(content(keys, format));
+    }
+
+    return root;
+  }
+
+  static String content(int keys, String format) {
+
+    StringBuilder b = new StringBuilder(keys * 32);
+
+    if ("json".equals(format))
+      b.append("{\n");
+
+    for (int i = 0; i < keys / 2; i++) {
+
+      switch (format) {
+        case "json":
+          b.append("\"").append(nameKey(i)).append("\": \"value-").append(i).append("\",\n");
+          b.append("\"").append(sizeKey(i)).append("\": \"").append(i).append("\"");
+          b.append(i < keys / 2 - 1 ? ",\n" : "\n");
+          break;
+        case "yaml":
+          b.append(nameKey(i)).append(": value-").append(i).append("\n");
+          b.append(sizeKey(i)).append(": ").append(i).append("\n");
+          break;
+        default:
+          b.append(nameKey(i)).append("=value-").append(i).append("\n");
+          b.append(sizeKey(i)).append("=").append(i).append("\n");
+      }
+    }
+
+    if ("json".equals(format))
+      b.append("}\n");
+
+    return b.toString();
+  }
+
+  static void delete(Path root) throws IOException {
+
+    if (root == null)
+      return;
+
+    try (Stream<Path> paths = Files.walk(root)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+}
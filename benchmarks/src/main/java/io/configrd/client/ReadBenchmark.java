@@ -0,0 +1,87 @@
+package io.configrd.client;
+
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads from a loaded config.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+  @Param({"100", "10000", "100000"})
+  public int keys;
+
+  @Param({"properties", "yaml", "json"})
+  public String format;
+
+  @Param({"false", "true"})
+  public boolean compact;
+
+  private Path root;
+  private ClientConfig config;
+  private String nameKey;
+  private String sizeKey;
+
+  @Setup
+  public void setup() throws Exception {
+
+    root = BenchmarkConfigs.write(keys, format);
+    ConfigClient.BaseClientBuilder<?> builder = ConfigClient.config(root.toUri().toString())
+        .fileName("default." + format).path(BenchmarkConfigs.PATH);
+
+    if (compact) {
+      builder.compact();
+    }
+
+    config = builder.build();
+
+    nameKey = BenchmarkConfigs.nameKey(keys / 4);
+    sizeKey = BenchmarkConfigs.sizeKey(keys / 4);
+  }
+
+  @TearDown
+  public void teardown() throws Exception {
+    BenchmarkConfigs.delete(root);
+  }
+
+  @Benchmark
+  public String getProperty() {
+    return config.getProperty(nameKey, String.class);
+  }
+
+  @Benchmark
+  public Integer getTypedProperty() {
+    return config.getProperty(sizeKey, Integer.class);
+  }
+
+  @Benchmark
+  public String getFromView() {
+    return config.asMap().get(nameKey);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Properties getProperties() {
+    return config.getProperties();
+  }
+
+}
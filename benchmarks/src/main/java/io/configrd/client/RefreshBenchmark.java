@@ -0,0 +1,77 @@
+package io.configrd.client;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Refreshes a loaded config, both from an unchanged source and with configs which changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+  @Param({"100", "10000", "100000"})
+  public int keys;
+
+  @Param({"properties", "yaml", "json"})
+  public String format;
+
+  private Path root;
+  private ConfigClient.ConfigImpl config;
+  private Map<String, Object> fetched;
+  private Map<String, Object> changed;
+  private boolean flip;
+
+  @Setup
+  public void setup() throws Exception {
+
+    root = BenchmarkConfigs.write(keys, format);
+    config = (ConfigClient.ConfigImpl) ConfigClient.config(root.toUri().toString())
+        .fileName("default." + format).path(BenchmarkConfigs.PATH).build();
+
+    fetched = config.fetch();
+    changed = new HashMap<>(fetched);
+    changed.put(BenchmarkConfigs.nameKey(0), "changed");
+  }
+
+  @TearDown
+  public void teardown() throws Exception {
+    BenchmarkConfigs.delete(root);
+  }
+
+  /**
+   * Fetch and parse the source which hasn't changed since the last load.
+   */
+  @Benchmark
+  public void refresh() {
+    config.refresh();
+  }
+
+  /**
+   * Merge, fill and publish configs which changed since the last load.
+   */
+  @Benchmark
+  public void reload() {
+    flip = !flip;
+    config.apply(flip ? changed : fetched);
+  }
+
+}
@@ -0,0 +1,69 @@
+package io.configrd.client;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Builds configs from an in-process stand-in for a configrd server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Without TCP_NODELAY the JDK's http server adds delayed ACK stalls to every response
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ServerBenchmark {
+
+  @Param({"100", "10000", "100000"})
+  public int keys;
+
+  private HttpServer server;
+  private ConfigClient.ConfigrdServerClientBuilder builder;
+
+  @Setup
+  public void setup() throws Exception {
+
+    final byte[] body = BenchmarkConfigs.content(keys, "json").getBytes(StandardCharsets.UTF_8);
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/configrd/v1/" + BenchmarkConfigs.PATH, exchange -> {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+
+    builder = ConfigClient
+        .server("http://localhost:" + server.getAddress().getPort() + "/configrd/v1")
+        .path(BenchmarkConfigs.PATH);
+  }
+
+  @TearDown
+  public void teardown() {
+    server.stop(0);
+  }
+
+  @Benchmark
+  public ClientConfig build() {
+    return builder.build();
+  }
+
+}
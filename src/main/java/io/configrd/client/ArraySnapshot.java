@@ -0,0 +1,134 @@
+package io.configrd.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keys are held sorted next to their values and indexed by an open-addressing hash table.
+ */
+final class ArraySnapshot extends Snapshot {
+
+  private final String[] keys;
+  private final String[] values;
+
+  // Slots hold index + 1 into keys/values, 0 marks an empty slot
+  private final int[] table;
+  private final int mask;
+
+  private ArraySnapshot(String[] keys, String[] values) {
+    this.keys = keys;
+    this.values = values;
+
+    int capacity = Integer.highestOneBit(Math.max(keys.length, 1) * 2 - 1) << 1;
+    this.table = new int[capacity];
+    this.mask = capacity - 1;
+
+    for (int i = 0; i < keys.length; i++) {
+      int slot = spread(keys[i].hashCode()) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+  }
+
+  static ArraySnapshot of(Map<?, ?> props) {
+
+    String[] keys = new String[props.size()];
+    int i = 0;
+    for (Object key : props.keySet()) {
+      keys[i++] = String.valueOf(key);
+    }
+    Arrays.sort(keys);
+
+    String[] values = new String[keys.length];
+    for (i = 0; i < keys.length; i++) {
+      Object value = props.get(keys[i]);
+      values[i] = value == null ? null : String.valueOf(value);
+    }
+
+    return new ArraySnapshot(keys, values);
+  }
+
+  /**
+   * Merges changed keys into this snapshot's sorted keys without sorting everything again.
+   *
+   * @param set keys added or changed
+   * @param removed keys removed
+   * @return a new snapshot
+   */
+  ArraySnapshot patch(Map<String, Object> set, Set<String> removed) {
+
+    String[] changed = set.keySet().toArray(new String[0]);
+    Arrays.sort(changed);
+
+    List<String> keys = new ArrayList<>(this.keys.length + changed.length);
+    List<String> values = new ArrayList<>(this.keys.length + changed.length);
+
+    int i = 0, j = 0;
+
+    while (i < this.keys.length || j < changed.length) {
+
+      int c = i == this.keys.length ? 1
+          : j == changed.length ? -1 : this.keys[i].compareTo(changed[j]);
+
+      if (c < 0) {
+        if (!removed.contains(this.keys[i])) {
+          keys.add(this.keys[i]);
+          values.add(this.values[i]);
+        }
+        i++;
+      } else {
+        Object value = set.get(changed[j]);
+        keys.add(changed[j]);
+        values.add(value == null ? null : String.valueOf(value));
+        if (c == 0)
+          i++;
+        j++;
+      }
+    }
+
+    return new ArraySnapshot(keys.toArray(new String[0]), values.toArray(new String[0]));
+  }
+
+  static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  int indexOf(Object key) {
+
+    if (!(key instanceof String))
+      return -1;
+
+    int slot = spread(key.hashCode()) & mask;
+    int i;
+
+    while ((i = table[slot]) != 0) {
+      if (keys[i - 1].equals(key))
+        return i - 1;
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  @Override
+  int size() {
+    return keys.length;
+  }
+
+  @Override
+  String keyAt(int i) {
+    return keys[i];
+  }
+
+  @Override
+  String valueAt(int i) {
+    return values[i];
+  }
+
+}
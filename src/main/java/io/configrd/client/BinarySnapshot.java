@@ -0,0 +1,297 @@
+package io.configrd.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of very large configs encoded into a single off-heap buffer so they add next to nothing
+ * to the heap or to garbage collection. Values are only decoded when read.
+ * 
+ * The buffer holds an entry per key in key order (key offset, value offset, key hash), an
+ * open-addressing hash table of entries and a blob of length prefixed UTF-8 strings. Identical
+ * values are stored once. Strings holding unpaired surrogates, which UTF-8 can't encode, have each
+ * surrogate encoded as a three byte character and are flagged in their length so they decode back
+ * unchanged.
+ */
+final class BinarySnapshot extends Snapshot {
+
+  private static final int ENTRY = 12;
+
+  // Set in the length of strings holding unpaired surrogates
+  private static final int LONE = 0x80000000;
+
+  private final ByteBuffer buffer;
+  private final int count;
+  private final int table;
+  private final int mask;
+
+  private BinarySnapshot(ByteBuffer buffer, int count, int capacity) {
+    this.buffer = buffer;
+    this.count = count;
+    this.table = count * ENTRY;
+    this.mask = capacity - 1;
+  }
+
+  static BinarySnapshot of(Map<?, ?> props) {
+
+    final String[] keys = new String[props.size()];
+    int i = 0;
+    for (Object key : props.keySet()) {
+      keys[i++] = String.valueOf(key);
+    }
+    Arrays.sort(keys);
+
+    final int count = keys.length;
+    final int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+
+    final byte[][] strings = new byte[count * 2][];
+    final boolean[] lone = new boolean[count * 2];
+    final int[] valueIndex = new int[count];
+    final Map<String, Integer> distinct = new HashMap<>();
+
+    int blob = 0;
+    int n = 0;
+
+    for (i = 0; i < count; i++) {
+      lone[n] = !isWellFormed(keys[i]);
+      strings[n] = encode(keys[i], lone[n]);
+      blob += 4 + strings[n++].length;
+    }
+
+    for (i = 0; i < count; i++) {
+
+      Object value = props.get(keys[i]);
+
+      if (value == null) {
+        valueIndex[i] = -1;
+        continue;
+      }
+
+      String v = String.valueOf(value);
+      Integer existing = distinct.get(v);
+
+      if (existing == null) {
+        existing = n;
+        distinct.put(v, existing);
+        lone[n] = !isWellFormed(v);
+        strings[n] = encode(v, lone[n]);
+        blob += 4 + strings[n++].length;
+      }
+
+      valueIndex[i] = existing;
+    }
+
+    final int start = count * ENTRY + capacity * 4;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(start + blob);
+
+    final int[] offsets = new int[n];
+    buffer.position(start);
+
+    for (i = 0; i < n; i++) {
+      offsets[i] = buffer.position();
+      buffer.putInt(lone[i] ? strings[i].length | LONE : strings[i].length);
+      buffer.put(strings[i]);
+    }
+
+    final int mask = capacity - 1;
+
+    for (i = 0; i < count; i++) {
+
+      final int hash = keys[i].hashCode();
+      buffer.putInt(i * ENTRY, offsets[i]);
+      buffer.putInt(i * ENTRY + 4, valueIndex[i] < 0 ? -1 : offsets[valueIndex[i]]);
+      buffer.putInt(i * ENTRY + 8, hash);
+
+      int slot = ArraySnapshot.spread(hash) & mask;
+      while (buffer.getInt(count * ENTRY + slot * 4) != 0) {
+        slot = (slot + 1) & mask;
+      }
+      buffer.putInt(count * ENTRY + slot * 4, i + 1);
+    }
+
+    buffer.clear();
+    return new BinarySnapshot(buffer.asReadOnlyBuffer(), count, capacity);
+  }
+
+  @Override
+  int size() {
+    return count;
+  }
+
+  @Override
+  String keyAt(int i) {
+    return decode(buffer.getInt(i * ENTRY));
+  }
+
+  @Override
+  String valueAt(int i) {
+    int offset = buffer.getInt(i * ENTRY + 4);
+    return offset < 0 ? null : decode(offset);
+  }
+
+  @Override
+  int indexOf(Object key) {
+
+    if (!(key instanceof String))
+      return -1;
+
+    final String k = (String) key;
+    final int hash = k.hashCode();
+    int slot = ArraySnapshot.spread(hash) & mask;
+    int e;
+
+    while ((e = buffer.getInt(table + slot * 4)) != 0) {
+
+      int i = e - 1;
+
+      if (buffer.getInt(i * ENTRY + 8) == hash && matches(buffer.getInt(i * ENTRY), k))
+        return i;
+
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  private String decode(int offset) {
+
+    final int length = buffer.getInt(offset);
+
+    if ((length & LONE) != 0)
+      return decodeLone(offset + 4, offset + 4 + (length & ~LONE));
+
+    byte[] bytes = new byte[length];
+    ByteBuffer b = buffer.duplicate();
+    b.position(offset + 4);
+    b.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decodes by hand as the UTF-8 decoder would replace encoded surrogates.
+   */
+  private String decodeLone(int pos, int end) {
+
+    StringBuilder b = new StringBuilder(end - pos);
+
+    while (pos < end) {
+
+      int c = buffer.get(pos++) & 0xFF;
+      int more = c < 0x80 ? 0 : c < 0xE0 ? 1 : c < 0xF0 ? 2 : 3;
+
+      if (more > 0)
+        c &= 0x3F >> more;
+
+      while (more-- > 0) {
+        c = (c << 6) | (buffer.get(pos++) & 0x3F);
+      }
+
+      b.appendCodePoint(c);
+    }
+
+    return b.toString();
+  }
+
+  private static boolean isWellFormed(String s) {
+
+    for (int i = 0; i < s.length(); i++) {
+
+      char c = s.charAt(i);
+
+      if (Character.isHighSurrogate(c) && i + 1 < s.length()
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param s
+   * @param lone whether the string holds unpaired surrogates
+   * @return UTF-8 bytes, with unpaired surrogates encoded as three byte characters
+   */
+  private static byte[] encode(String s, boolean lone) {
+
+    if (!lone)
+      return s.getBytes(StandardCharsets.UTF_8);
+
+    byte[] bytes = new byte[s.length() * 3];
+    int n = 0;
+
+    for (int i = 0; i < s.length(); i++) {
+
+      int c = s.charAt(i);
+
+      if (Character.isHighSurrogate((char) c) && i + 1 < s.length()
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        c = Character.toCodePoint((char) c, s.charAt(++i));
+      }
+
+      if (c < 0x80) {
+        bytes[n++] = (byte) c;
+      } else {
+
+        int more = c < 0x800 ? 1 : c < 0x10000 ? 2 : 3;
+        int lead = more == 1 ? 0xC0 : more == 2 ? 0xE0 : 0xF0;
+        bytes[n++] = (byte) (lead | (c >> (6 * more)));
+
+        while (more-- > 0) {
+          bytes[n++] = (byte) (0x80 | ((c >> (6 * more)) & 0x3F));
+        }
+      }
+    }
+
+    return Arrays.copyOf(bytes, n);
+  }
+
+  /**
+   * Compares the UTF-8 string at offset to a key without decoding it.
+   */
+  private boolean matches(int offset, String key) {
+
+    int pos = offset + 4;
+    final int end = pos + (buffer.getInt(offset) & ~LONE);
+
+    for (int i = 0; i < key.length(); i++) {
+
+      int c = key.charAt(i);
+
+      if (Character.isHighSurrogate((char) c) && i + 1 < key.length()
+          && Character.isLowSurrogate(key.charAt(i + 1))) {
+        c = Character.toCodePoint((char) c, key.charAt(++i));
+      }
+
+      if (c < 0x80) {
+        if (pos >= end || buffer.get(pos++) != (byte) c)
+          return false;
+      } else {
+
+        int bytes = c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+
+        if (pos + bytes > end)
+          return false;
+
+        int shift = 6 * (bytes - 1);
+        int lead = bytes == 2 ? 0xC0 : bytes == 3 ? 0xE0 : 0xF0;
+
+        if (buffer.get(pos++) != (byte) (lead | (c >> shift)))
+          return false;
+
+        while ((shift -= 6) >= 0) {
+          if (buffer.get(pos++) != (byte) (0x80 | ((c >> shift) & 0x3F)))
+            return false;
+        }
+      }
+    }
+
+    return pos == end;
+  }
+
+}
@@ -0,0 +1,146 @@
+package io.configrd.client;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds configs under a prefix onto a new instance of a class. Setters and public fields are looked
+ * up once per class, values are converted through the snapshot so each conversion is also done
+ * once per snapshot.
+ *
+ * Keys match properties ignoring case, dashes and underscores, i.e. "max-pool-size" binds to
+ * setMaxPoolSize. Keys without a matching property are ignored.
+ */
+final class Binder<T> {
+
+  private static final ConcurrentHashMap<Class<?>, Binder<?>> binders = new ConcurrentHashMap<>();
+
+  private final Constructor<T> constructor;
+
+  private final Map<String, Target> properties;
+
+  private Binder(Class<T> clazz) {
+
+    try {
+      this.constructor = clazz.getDeclaredConstructor();
+      this.constructor.setAccessible(true);
+    } catch (NoSuchMethodException | SecurityException e) {
+      throw new IllegalArgumentException(clazz.getName() + " has no default constructor", e);
+    }
+
+    Map<String, Target> properties = new HashMap<>();
+
+    for (Field f : clazz.getFields()) {
+      if (!Modifier.isStatic(f.getModifiers()) && !Modifier.isFinal(f.getModifiers())) {
+        properties.put(normalize(f.getName()), new Target(f.getType(), null, f));
+      }
+    }
+
+    try {
+
+      BeanInfo info = Introspector.getBeanInfo(clazz, Object.class);
+
+      for (PropertyDescriptor d : info.getPropertyDescriptors()) {
+        Method setter = d.getWriteMethod();
+        if (setter != null) {
+          properties.put(normalize(d.getName()),
+              new Target(setter.getParameterTypes()[0], setter, null));
+        }
+      }
+
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Unable to introspect " + clazz.getName(), e);
+    }
+
+    this.properties = properties;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Binder<T> of(Class<T> clazz) {
+
+    Binder<T> binder = (Binder<T>) binders.get(clazz);
+
+    if (binder == null) {
+      binder = (Binder<T>) binders.computeIfAbsent(clazz, Binder::new);
+    }
+
+    return binder;
+  }
+
+  /**
+   * @param snapshot
+   * @param prefix keys to bind, i.e. "db.primary"
+   * @return a new instance holding values of keys directly under the prefix
+   */
+  T bind(Snapshot snapshot, String prefix) {
+
+    final T target;
+
+    try {
+      target = constructor.newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "Unable to create " + constructor.getDeclaringClass().getName(), e);
+    }
+
+    final String p = Snapshot.asPrefix(prefix);
+
+    for (String key : snapshot.subset(prefix).keySet()) {
+
+      Target property = properties.get(normalize(key));
+
+      if (property == null)
+        continue;
+
+      Object value = snapshot.getProperty(p + key, property.type);
+
+      if (value == null)
+        continue;
+
+      try {
+        if (property.setter != null) {
+          property.setter.invoke(target, value);
+        } else {
+          property.field.set(target, value);
+        }
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Unable to bind " + p + key, e);
+      }
+    }
+
+    return target;
+  }
+
+  private static String normalize(String name) {
+
+    StringBuilder b = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c != '-' && c != '_')
+        b.append(c);
+    }
+    return b.toString().toLowerCase(Locale.ROOT);
+  }
+
+  private static class Target {
+
+    private final Class<?> type;
+    private final Method setter;
+    private final Field field;
+
+    private Target(Class<?> type, Method setter, Field field) {
+      this.type = type;
+      this.setter = setter;
+      this.field = field;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package io.configrd.client;
+
+/**
+ * A handle on a boolean config parsed as by {@link ClientConfig#getBoolean(String, boolean)}.
+ */
+public final class BooleanProperty extends PropertyHandle<Boolean> {
+
+  BooleanProperty(ConfigClient.ConfigImpl config, String key, boolean defaultValue) {
+    super(config, key, defaultValue);
+  }
+
+  public boolean get() {
+    return value();
+  }
+
+  @Override
+  Boolean read(Snapshot snapshot, String key) {
+    return snapshot.getBoolean(key);
+  }
+}
@@ -0,0 +1,74 @@
+package io.configrd.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops fetching from a failing source after a number of consecutive failures. While open, fetches
+ * fail fast and the last loaded configs keep being served. Once the open period passes a single
+ * fetch is let through, closing the circuit if it succeeds or opening it again if it fails.
+ */
+class CircuitBreaker {
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int threshold;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int failures = 0;
+  private long openedAt;
+
+  /**
+   * @param threshold consecutive failures opening the circuit
+   * @param openMillis how long to fail fast before trying the source again
+   */
+  CircuitBreaker(int threshold, long openMillis) {
+
+    if (threshold < 1)
+      throw new IllegalArgumentException("Failure threshold must be at least 1");
+
+    this.threshold = threshold;
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+  }
+
+  /**
+   * @return true if a fetch may go to the source
+   */
+  synchronized boolean allow() {
+
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt >= openNanos) {
+          state = State.HALF_OPEN;
+          return true;
+        }
+        return false;
+      default:
+        // A trial fetch is already under way
+        return false;
+    }
+  }
+
+  synchronized void success() {
+    state = State.CLOSED;
+    failures = 0;
+  }
+
+  synchronized void failure() {
+
+    failures++;
+
+    if (state == State.HALF_OPEN || failures >= threshold) {
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+}
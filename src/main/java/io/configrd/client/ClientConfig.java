@@ -0,0 +1,106 @@
+package io.configrd.client;
+
+import java.time.Duration;
+import java.util.Map;
+import io.configrd.core.Config;
+
+/**
+ * Configs built by {@link ConfigClient}.
+ */
+public interface ClientConfig extends Config {
+
+  /**
+   * A read-only view of the currently loaded configs. The view is not copied and does not change
+   * when configs are refreshed, call again to see the latest values.
+   *
+   * @return
+   */
+  public Map<String, String> asMap();
+
+  /**
+   * Listen to changes of any key.
+   * 
+   * @param listener
+   */
+  public void addListener(ConfigListener listener);
+
+  /**
+   * Listen to changes of keys starting with a prefix, i.e. "db.primary."
+   * 
+   * @param prefix
+   * @param listener
+   */
+  public void addListener(String prefix, ConfigListener listener);
+
+  /**
+   * Bind configs under a prefix onto a new instance of a class through its setters or public
+   * fields, i.e. "db.primary.max-pool-size" onto setMaxPoolSize for prefix "db.primary".
+   *
+   * @param prefix
+   * @param clazz with a default constructor
+   * @return
+   */
+  public <T> T bind(String prefix, Class<T> clazz);
+
+  /**
+   * Stop refreshing and release this config's share of its source. The configs last loaded can
+   * still be read.
+   */
+  public void close();
+
+  /**
+   * Unlike {@link #getProperty(String, Class)} the value is trimmed and parsed strictly, a
+   * malformed value is logged and the default returned.
+   *
+   * @param key
+   * @param defaultValue
+   * @return true for "true", "yes", "on" or "1" and false for "false", "no", "off" or "0"
+   */
+  public boolean getBoolean(String key, boolean defaultValue);
+
+  /**
+   * @param key
+   * @param defaultValue
+   * @return value such as "PT30S", "500ms", "30s", "5m", "1h" or "2d", a bare number is in
+   *         milliseconds
+   */
+  public Duration getDuration(String key, Duration defaultValue);
+
+  public int getInt(String key, int defaultValue);
+
+  public long getLong(String key, long defaultValue);
+
+  /**
+   * @return number of refreshes skipped because the source hadn't changed
+   */
+  public long getSkippedRefreshes();
+
+  /**
+   * A handle for reading a config in a hot path, i.e. a feature flag. The value is resolved once
+   * per refresh rather than on every read.
+   *
+   * @param key
+   * @param defaultValue
+   * @return
+   */
+  public BooleanProperty booleanProperty(String key, boolean defaultValue);
+
+  public IntProperty intProperty(String key, int defaultValue);
+
+  public LongProperty longProperty(String key, long defaultValue);
+
+  public <T> Property<T> property(String key, Class<T> clazz, T defaultValue);
+
+  public void removeListener(ConfigListener listener);
+
+  /**
+   * A read-only view of configs under a prefix with the prefix stripped, i.e. "host" for
+   * "db.primary.host" given prefix "db.primary". Like {@link #asMap()} the view is not copied and
+   * does not change when configs are refreshed.
+   *
+   * @param prefix
+   * @return
+   */
+  public Map<String, String> subset(String prefix);
+
+}
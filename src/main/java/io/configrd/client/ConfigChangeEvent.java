@@ -0,0 +1,99 @@
+package io.configrd.client;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keys added, removed or changed between two loads of a config. Key lists are sorted.
+ */
+public class ConfigChangeEvent {
+
+  private final Map<String, String> previous;
+  private final Map<String, String> current;
+  private final List<String> added;
+  private final List<String> removed;
+  private final List<String> changed;
+
+  ConfigChangeEvent(Map<String, String> previous, Map<String, String> current, List<String> added,
+      List<String> removed, List<String> changed) {
+    this.previous = previous;
+    this.current = current;
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+    this.changed = Collections.unmodifiableList(changed);
+  }
+
+  /**
+   * @return keys which are new in the current configs
+   */
+  public List<String> getAdded() {
+    return added;
+  }
+
+  /**
+   * @return keys which are no longer in the current configs
+   */
+  public List<String> getRemoved() {
+    return removed;
+  }
+
+  /**
+   * @return keys which are in both configs with different values
+   */
+  public List<String> getChanged() {
+    return changed;
+  }
+
+  /**
+   * @return read-only view of the configs before the change
+   */
+  public Map<String, String> getPrevious() {
+    return previous;
+  }
+
+  /**
+   * @return read-only view of the configs after the change
+   */
+  public Map<String, String> getCurrent() {
+    return current;
+  }
+
+  public boolean isEmpty() {
+    return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+  }
+
+  /**
+   * @param prefix
+   * @return only the changes to keys starting with the prefix
+   */
+  ConfigChangeEvent forPrefix(String prefix) {
+    return new ConfigChangeEvent(previous, current, slice(added, prefix), slice(removed, prefix),
+        slice(changed, prefix));
+  }
+
+  private static List<String> slice(List<String> keys, String prefix) {
+
+    int from = lowerBound(keys, prefix);
+    int to = from;
+
+    while (to < keys.size() && keys.get(to).startsWith(prefix)) {
+      to++;
+    }
+
+    return keys.subList(from, to);
+  }
+
+  private static int lowerBound(List<String> keys, String key) {
+
+    int i = Collections.binarySearch(keys, key);
+    return i < 0 ? -(i + 1) : i;
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigChangeEvent [added=" + added + ", removed=" + removed + ", changed=" + changed
+        + "]";
+  }
+
+}
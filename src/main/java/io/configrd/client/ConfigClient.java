@@ -1,30 +1,46 @@
 package io.configrd.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.UnknownHostException;
-import java.security.cert.CertificateException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSession;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-import org.apache.commons.beanutils.ConvertUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.configrd.client.discovery.HostsLookup;
+import io.configrd.client.metrics.ConfigMetrics;
+import io.configrd.client.metrics.ConfigMetrics.Stage;
 import io.configrd.core.Config;
 import io.configrd.core.ConfigSourceResolver;
 import io.configrd.core.DefaultMergeStrategy;
@@ -32,14 +48,12 @@ import io.configrd.core.Environment;
 import io.configrd.core.MergeStrategy;
 import io.configrd.core.exception.InitializationException;
 import io.configrd.core.file.FileRepoDef;
-import io.configrd.core.processor.ProcessorSelector;
-import io.configrd.core.processor.ProcessorSelector.Type;
 import io.configrd.core.processor.PropertiesProcessor;
 import io.configrd.core.source.ConfigSource;
 import io.configrd.core.source.RepoDef;
 import io.configrd.core.source.SecuredRepo;
-import io.configrd.core.source.StreamPacket;
 import io.configrd.core.util.StringUtils;
+import okhttp3.Credentials;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -52,13 +66,17 @@ import okhttp3.Response;
  */
 public class ConfigClient {
 
-  public abstract class BaseClientBuilder {
+  public abstract class BaseClientBuilder<B extends BaseClientBuilder<B>> implements ConfigBuilder {
 
     protected Map<String, Object> vals = new HashMap<>();
     protected String uri;
     protected String path;
     protected ConfigSourceResolver sourceResolver;
     protected Integer timerTTL = 0;
+    protected boolean compact = false;
+    protected RetryPolicy retry = RetryPolicy.NONE;
+    protected int breakerFailures = 0;
+    protected long breakerOpenMillis = 0;
 
     protected BaseClientBuilder(String uri) {
       this.vals.put(RepoDef.URI_FIELD, uri);
@@ -68,14 +86,39 @@ public class ConfigClient {
       this.vals.put("path", path);
     }
 
-    public BaseClientBuilder basicAuth(String username, String password) {
+    public B basicAuth(String username, String password) {
       vals.put(SecuredRepo.USERNAME_FIELD, username);
       vals.put(SecuredRepo.PASSWORD_FIELD, password);
       vals.put(SecuredRepo.AUTH_METHOD_FIELD, "HttpBasicAuth");
-      return this;
+      return self();
     }
 
-    public abstract Config build();
+    public abstract ClientConfig build();
+
+    /**
+     * After a number of consecutive failed refreshes stop fetching for a while and keep serving the
+     * last loaded configs.
+     * 
+     * @param failures consecutive failures opening the circuit
+     * @param openMillis how long to wait before trying the source again
+     * @return
+     */
+    public B circuitBreaker(int failures, long openMillis) {
+      this.breakerFailures = failures;
+      this.breakerOpenMillis = openMillis;
+      return self();
+    }
+
+    /**
+     * Hold configs in a compact, off-heap snapshot. Meant for very large configs, reads decode
+     * values and are slower.
+     * 
+     * @return
+     */
+    public B compact() {
+      this.compact = true;
+      return self();
+    }
 
     /**
      * Change the config file name from default.properties.
@@ -83,19 +126,101 @@ public class ConfigClient {
      * @param name i.e. "myvars.yaml, myvars.properties, myvars.json"
      * @return
      */
-    public BaseClientBuilder fileName(String name) {
+    public B fileName(String name) {
       vals.put(FileRepoDef.FILE_NAME_FIELD, name);
-      return this;
+      return self();
     }
 
-    public BaseClientBuilder path(String path) {
+    public B path(String path) {
       this.path = path;
-      return this;
+      return self();
     }
 
-    public BaseClientBuilder refresh(int seconds) {
+    public B refresh(int seconds) {
       this.timerTTL = seconds;
-      return this;
+      return self();
+    }
+
+    /**
+     * Retry failed fetches with exponential backoff and jitter.
+     * 
+     * @param attempts total attempts per fetch, including the first. default: 1
+     * @param backoffMillis delay before the first retry, doubled for each further retry
+     * @return
+     */
+    public B retry(int attempts, long backoffMillis) {
+      this.retry = new RetryPolicy(attempts, backoffMillis);
+      return self();
+    }
+
+    /**
+     * Reload a config whenever the directories of its paths below a root change on disk.
+     */
+    void watch(ConfigImpl c, String root, Collection<String> paths) {
+
+      Set<Path> dirs = new LinkedHashSet<>();
+
+      for (String p : paths) {
+        FileWatcher.resolve(root, p).ifPresent(dirs::addAll);
+      }
+
+      if (dirs.isEmpty()) {
+        logger.warn("Unable to watch configs at " + root + " which aren't files on disk");
+        return;
+      }
+
+      try {
+        watcher().watch(new ArrayList<>(dirs), c);
+      } catch (IOException e) {
+        logger.error("Unable to watch " + dirs + " for changes", e);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private B self() {
+      return (B) this;
+    }
+
+    /**
+     * @param uri classpath, file or http(s) uri of a repos or hosts file
+     * @return the file's contents read with this builder's cert trust and credentials or null if
+     *         not found
+     * @throws IOException
+     */
+    InputStream open(URI uri) throws IOException {
+
+      final boolean trust =
+          Boolean.parseBoolean(String.valueOf(vals.get(RepoDef.TRUST_CERTS_FIELD)));
+      final Object username = vals.get(SecuredRepo.USERNAME_FIELD);
+      final Object password = vals.get(SecuredRepo.PASSWORD_FIELD);
+
+      return ConfigClient.open(uri, HttpClients.get(trust, FILE_TIMEOUT, FILE_TIMEOUT),
+          username == null ? null
+              : Credentials.basic(String.valueOf(username), String.valueOf(password)));
+    }
+
+    /**
+     * @return the source settings configs are shared by, with the password replaced by a digest of
+     *         the credentials so it isn't held by the shared fetchers and scheduler
+     */
+    Map<String, Object> settings() {
+
+      final Map<String, Object> settings = new HashMap<>(vals);
+      final Object password = settings.remove(SecuredRepo.PASSWORD_FIELD);
+
+      if (password != null) {
+        byte[] credentials = (settings.get(SecuredRepo.USERNAME_FIELD) + ":" + password)
+            .getBytes(StandardCharsets.UTF_8);
+        settings.put(SecuredRepo.PASSWORD_FIELD,
+            Base64.getEncoder().encodeToString(Fingerprint.of(credentials)));
+      }
+
+      return settings;
+    }
+
+    ConfigFetcher resilient(String name, ConfigFetcher fetcher) {
+      return ResilientFetcher.wrap(name, fetcher, retry,
+          breakerFailures > 0 ? new CircuitBreaker(breakerFailures, breakerOpenMillis) : null);
     }
 
     /**
@@ -104,9 +229,9 @@ public class ConfigClient {
      * @param name file or http is supported
      * @return
      */
-    public BaseClientBuilder sourceName(String name) {
+    public B sourceName(String name) {
       vals.put(RepoDef.SOURCE_NAME_FIELD, name);
-      return this;
+      return self();
     }
 
     /**
@@ -115,135 +240,762 @@ public class ConfigClient {
      * @param trust true or false. default: false
      * @return
      */
-    public BaseClientBuilder trustCerts(boolean trust) {
+    public B trustCerts(boolean trust) {
       vals.put(RepoDef.TRUST_CERTS_FIELD, String.valueOf(trust));
-      return this;
+      return self();
     }
   }
 
-  protected class ConfigImpl implements Config, Refresh {
+  public interface ConfigBuilder extends LegacyBuilder {
 
-    private final ConfigSource configSource;
-    private String path;
-    private Set<String> named = new HashSet<>();
+    public ClientConfig build();
 
-    private final AtomicReference<Properties> loadedProperties =
-        new AtomicReference<>(new Properties());
+    /**
+     * Build on the shared loader pool.
+     * 
+     * @return
+     */
+    default CompletableFuture<ClientConfig> buildAsync() {
+      return CompletableFuture.supplyAsync(this::build, loader);
+    }
 
-    protected ConfigImpl(ConfigSource configSource, Set<String> named) {
-      this.configSource = configSource;
-      this.named = named;
-      refresh();
+  }
+
+  /**
+   * Builders returned {@link Config} before {@link ClientConfig}. Declaring it has the compiler
+   * emit a build() bridge returning Config on every builder so callers compiled against earlier
+   * versions keep linking.
+   */
+  interface LegacyBuilder {
+
+    public Config build();
+
+  }
+
+  protected class ConfigImpl implements ClientConfig {
+
+    private final String name;
+
+    private final ConfigFetcher fetcher;
+
+    private final boolean compact;
+
+    private final ConfigMetrics metrics = ConfigClient.metrics.get();
+
+    private final AtomicReference<Snapshot> loadedProperties =
+        new AtomicReference<>(Snapshot.EMPTY);
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong skippedRefreshes = new AtomicLong();
+
+    private final PlaceholderResolver placeholders = new PlaceholderResolver();
+
+    private volatile byte[] fingerprint;
+
+    // When the loaded configs were last confirmed current with the source
+    private volatile long confirmed = 0;
+
+    private volatile boolean closed = false;
+
+    protected ConfigImpl(String name, ConfigFetcher fetcher) {
+      this(name, fetcher, false);
     }
 
-    protected ConfigImpl(ConfigSource configSource, String path) {
-      this.configSource = configSource;
-      this.path = path;
+    /**
+     * @param name
+     * @param fetcher
+     * @param compact hold configs in a compact, off-heap snapshot
+     */
+    protected ConfigImpl(String name, ConfigFetcher fetcher, boolean compact) {
+      this.name = name;
+      this.fetcher = fetcher;
+      this.compact = compact;
+      metrics.register(name, () -> System.currentTimeMillis() - confirmed);
       refresh();
     }
 
-    public Properties getProperties() {
-      Properties props = new Properties();
-      props.putAll(loadedProperties.get());
-      return props;
+    protected ConfigImpl(String name, ConfigSource configSource, Set<String> named,
+        boolean compact) {
+      this(name, () -> configSource.get(null, named), compact);
     }
 
-    public <T> T getProperty(String key, Class<T> clazz) {
+    protected ConfigImpl(String name, ConfigSource configSource, String path, boolean compact) {
+      this(name, () -> configSource.get(path, new HashSet<>()), compact);
+    }
+
+    public void addListener(ConfigListener listener) {
+      addListener("", listener);
+    }
+
+    public void addListener(String prefix, ConfigListener listener) {
+      listeners.add(new Listener(prefix, listener));
+    }
+
+    public Map<String, String> asMap() {
+      demand(null);
+      return loadedProperties.get().asMap();
+    }
+
+    public <T> T bind(String prefix, Class<T> clazz) {
+      demand(prefix);
+      return loadedProperties.get().bind(prefix, clazz);
+    }
+
+    public BooleanProperty booleanProperty(String key, boolean defaultValue) {
+      demand(key);
+      return new BooleanProperty(this, key, defaultValue);
+    }
 
-      String value = loadedProperties.get().getProperty(key);
+    public void close() {
 
-      if (StringUtils.hasText(value)) {
-        return (T) ConvertUtils.convert(value, clazz);
+      synchronized (this) {
+        if (closed)
+          return;
+        closed = true;
       }
 
-      return null;
+      fetcher.close();
+      metrics.unregister(name);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+      demand(key);
+      Boolean val = loadedProperties.get().getBoolean(key);
+      return val == null ? defaultValue : val;
+    }
+
+    public Duration getDuration(String key, Duration defaultValue) {
+      demand(key);
+      Duration val = loadedProperties.get().getDuration(key);
+      return val == null ? defaultValue : val;
+    }
+
+    public int getInt(String key, int defaultValue) {
+      demand(key);
+      Integer val = loadedProperties.get().getInt(key);
+      return val == null ? defaultValue : val;
+    }
+
+    public long getLong(String key, long defaultValue) {
+      demand(key);
+      Long val = loadedProperties.get().getLong(key);
+      return val == null ? defaultValue : val;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Properties getProperties() {
+      demand(null);
+      return loadedProperties.get().getProperties();
+    }
+
+    public <T> T getProperty(String key, Class<T> clazz) {
+      demand(key);
+      return loadedProperties.get().getProperty(key, clazz);
     }
 
     public <T> T getProperty(String key, Class<T> clazz, T value) {
 
       T val = getProperty(key, clazz);
 
-      if (val != null && val != "")
+      if (val != null && !"".equals(val))
         return val;
 
       return value;
 
     }
 
-    public void refresh() {
+    public long getSkippedRefreshes() {
+      return skippedRefreshes.get();
+    }
+
+    public IntProperty intProperty(String key, int defaultValue) {
+      demand(key);
+      return new IntProperty(this, key, defaultValue);
+    }
+
+    public LongProperty longProperty(String key, long defaultValue) {
+      demand(key);
+      return new LongProperty(this, key, defaultValue);
+    }
+
+    public <T> Property<T> property(String key, Class<T> clazz, T defaultValue) {
+      demand(key);
+      return new Property<>(this, key, clazz, defaultValue);
+    }
+
+    /**
+     * @return the loaded configs
+     */
+    Snapshot snapshot() {
+      return loadedProperties.get();
+    }
+
+    boolean isClosed() {
+      return closed;
+    }
+
+    public void refresh() {
+      if (!closed)
+        apply(fetch());
+    }
+
+    public void removeListener(ConfigListener listener) {
+      listeners.removeIf(l -> l.listener == listener);
+    }
+
+    public Map<String, String> subset(String prefix) {
+      demand(prefix);
+      return loadedProperties.get().subset(prefix);
+    }
+
+    protected Map<String, Object> fetch() {
+
+      final long start = System.nanoTime();
+
+      try {
+
+        Map<String, Object> p = fetcher.fetch();
+        metrics.timing(name, Stage.FETCH, System.nanoTime() - start);
+        return p;
+
+      } catch (RuntimeException e) {
+        metrics.failed(name, e);
+        throw e;
+      }
+    }
+
+    /**
+     * @param p fetched configs or null if unchanged
+     */
+    protected synchronized void apply(Map<String, Object> p) {
+
+      if (closed)
+        return;
+
+      if (p == null) {
+        skipped();
+        return;
+      }
+
+      Snapshot next = patch(loadedProperties.get(), p);
+
+      final byte[] fingerprint =
+          next == null ? Fingerprint.of(p, environment.getEnvironment()) : null;
+
+      if (next == null && Arrays.equals(fingerprint, this.fingerprint)) {
+        skipped();
+        return;
+      }
+
+      try {
+        if (next == null) {
+          Map<String, Object> resolved = resolve(p);
+          next = compact ? Snapshot.compact(resolved) : Snapshot.of(resolved);
+        }
+      } catch (RuntimeException e) {
+        metrics.failed(name, e);
+        throw e;
+      }
+
+      this.fingerprint = fingerprint;
+      this.confirmed = System.currentTimeMillis();
+
+      Snapshot previous = loadedProperties.getAndSet(next);
+      metrics.refreshed(name, next.size());
+      logger.info("Configs loaded.");
+
+      if (!listeners.isEmpty()) {
+        notify(next.diff(previous));
+      }
+    }
+
+    private void notify(ConfigChangeEvent event) {
+
+      if (event.isEmpty())
+        return;
+
+      for (Listener l : listeners) {
+
+        ConfigChangeEvent e = l.prefix.isEmpty() ? event : event.forPrefix(l.prefix);
+
+        if (!e.isEmpty()) {
+          try {
+            l.listener.onChange(e);
+          } catch (Exception ex) {
+            logger.error("Config listener failed", ex);
+          }
+        }
+      }
+    }
+
+    /**
+     * Called before reading a key so configs can be loaded on demand.
+     * 
+     * @param key key or prefix about to be read, null if all keys are
+     */
+    protected void demand(String key) {}
+
+    /**
+     * @param current
+     * @param p fetched configs
+     * @return the current snapshot with only what changed in p applied or null to rebuild from p
+     */
+    protected Snapshot patch(Snapshot current, Map<String, Object> p) {
+      return null;
+    }
+
+    protected Map<String, Object> resolve(Map<String, Object> p) {
+
+      final long start = System.nanoTime();
+      final MergeStrategy merge = new DefaultMergeStrategy();
+      merge.addConfig(p);
+
+      // Variables defined on host override
+      merge.addConfig((Map) environment.getEnvironment());
+      Map<String, Object> merged = merge.merge();
+
+      final long filling = System.nanoTime();
+      metrics.timing(name, Stage.MERGE, filling - start);
+
+      Map<String, Object> filled = placeholders.resolve(merged);
+      metrics.timing(name, Stage.FILL, System.nanoTime() - filling);
+
+      return (Map) PropertiesProcessor.asProperties(filled);
+    }
+
+    private void skipped() {
+      skippedRefreshes.incrementAndGet();
+      confirmed = System.currentTimeMillis();
+      metrics.skipped(name);
+      logger.debug("Configs unchanged.");
+    }
+
+  }
+
+  private static final class HostsFile {
+
+    private final byte[] fingerprint;
+    private final HostsLookup lookup;
+
+    HostsFile(byte[] fingerprint, HostsLookup lookup) {
+      this.fingerprint = fingerprint;
+      this.lookup = lookup;
+    }
+  }
+
+  /**
+   * Reads a repos or hosts file, returning null if it isn't found.
+   */
+  private interface Opener {
+
+    InputStream open(URI uri) throws IOException;
+
+  }
+
+  private static class Listener {
+
+    private final String prefix;
+    private final ConfigListener listener;
+
+    Listener(String prefix, ConfigListener listener) {
+      this.prefix = prefix;
+      this.listener = listener;
+    }
+  }
+
+  /**
+   * Configs served by a configrd server are already merged and filled by the server.
+   */
+  protected class ServerConfigImpl extends ConfigImpl {
+
+    private volatile PushSubscriber push;
+
+    // ETag of the configs loaded, set while the superclass loads them so not initialized here
+    private String etag;
+
+    protected ServerConfigImpl(String name, ConfigFetcher fetcher, boolean compact) {
+      super(name, fetcher, compact);
+    }
+
+    @Override
+    public void close() {
+
+      super.close();
+
+      if (push != null)
+        push.close();
+    }
+
+    PushSubscriber getPush() {
+      return push;
+    }
+
+    /**
+     * Keep what's loaded if the server can't be reached or returns unreadable configs.
+     */
+    @Override
+    public void refresh() {
+      try {
+        super.refresh();
+      } catch (IllegalArgumentException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        logger.debug(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    protected synchronized void apply(Map<String, Object> p) {
+
+      super.apply(p);
+
+      if (p != null)
+        etag = p instanceof ServerConfigs ? ((ServerConfigs) p).getETag() : null;
+    }
+
+    /**
+     * A patch made against the configs loaded only needs the changed keys applied.
+     */
+    @Override
+    protected Snapshot patch(Snapshot current, Map<String, Object> p) {
+
+      if (!(p instanceof ConfigPatch) || etag == null
+          || !etag.equals(((ConfigPatch) p).getBaseETag()) || !(current instanceof ArraySnapshot))
+        return null;
+
+      ConfigPatch patch = (ConfigPatch) p;
+      return ((ArraySnapshot) current).patch(patch.getSet(), patch.getRemoved());
+    }
+
+    @Override
+    protected Map<String, Object> resolve(Map<String, Object> p) {
+      return p;
+    }
+
+  }
+
+  /**
+   * Named paths fetched and merged only once a key in their namespace is first read. A named path's
+   * namespace is taken to be its name, i.e. keys db.* for named path "db". Named paths don't have
+   * to keep to it, so a key outside every namespace loads all named paths rather than risk reading
+   * it as missing.
+   */
+  protected class LazyNamedConfigImpl extends ConfigImpl {
+
+    private final Set<String> names;
+    private final Set<String> requested;
+    private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+    private volatile boolean complete = false;
+
+    /**
+     * @param name
+     * @param names all named paths
+     * @param requested named paths to fetch, read by the fetcher
+     * @param fetcher
+     * @param compact
+     */
+    protected LazyNamedConfigImpl(String name, Set<String> names, Set<String> requested,
+        ConfigFetcher fetcher, boolean compact) {
+      super(name, fetcher, compact);
+      this.names = names;
+      this.requested = requested;
+    }
+
+    /**
+     * Named paths are only marked loaded once their configs are published, readers of a namespace
+     * still loading wait on this config's monitor for the load under way.
+     */
+    @Override
+    protected void demand(String key) {
+
+      if (complete)
+        return;
+
+      if (missing(key).isEmpty())
+        return;
+
+      synchronized (this) {
+
+        // Loaded while waiting
+        List<String> missing = missing(key);
+
+        if (missing.isEmpty())
+          return;
+
+        logger.debug("Loading named paths " + missing + " on demand");
+
+        requested.addAll(missing);
+
+        try {
+          refresh();
+        } catch (RuntimeException e) {
+          requested.removeAll(missing);
+          throw e;
+        }
+
+        loaded.addAll(missing);
+        complete = loaded.containsAll(names);
+      }
+    }
+
+    /**
+     * Fetches depend on the named paths requested, so refreshes are kept from overlapping a load
+     * and publishing configs fetched before it.
+     */
+    @Override
+    public synchronized void refresh() {
+      super.refresh();
+    }
+
+    private List<String> missing(String key) {
+
+      List<String> missing = new ArrayList<>();
+      boolean known = false;
+
+      if (key != null) {
+        for (String n : names) {
+          if (inNamespace(key, n)) {
+            known = true;
+            if (!loaded.contains(n))
+              missing.add(n);
+          }
+        }
+      }
+
+      if (!known) {
+        for (String n : names) {
+          if (!loaded.contains(n))
+            missing.add(n);
+        }
+      }
+
+      return missing;
+    }
+
+    Set<String> getLoaded() {
+      return Collections.unmodifiableSet(loaded);
+    }
+
+    private boolean inNamespace(String key, String name) {
+      return key.startsWith(name)
+          && (key.length() == name.length() || key.charAt(name.length()) == '.');
+    }
+  }
+
+  public class ConfigrdConfigClientBuilder
+      extends BaseClientBuilder<ConfigrdConfigClientBuilder> {
+
+    private String repoName = "default";
+    private String[] namedPaths = new String[] {};
+    private boolean lazy = false;
+    private boolean watch = false;
+    private String hostsFile;
+
+    protected ConfigrdConfigClientBuilder(String uri) {
+      super(uri);
+    }
+
+    public ClientConfig build() {
+
+      if (hostsFile != null && path == null && namedPaths.length == 0) {
+        discoverPath();
+      }
+
+      final String sourceName = (String) vals.get(RepoDef.SOURCE_NAME_FIELD);
+      this.sourceResolver = new ConfigSourceResolver(vals);
+      Optional<ConfigSource> cs = sourceResolver.findConfigSourceByName(repoName);
+
+      if (cs.isPresent()) {
+
+        ConfigImpl c = null;
+        
+        Set<String> named = new HashSet<>(Arrays.asList(namedPaths));
+
+        final String name = vals.get(RepoDef.URI_FIELD) + "#" + repoName;
+
+        final ConfigSource source = cs.get();
+        Object key = Arrays.asList(settings(), repoName, path, named);
+
+        if (namedPaths.length > 0 && lazy) {
+
+          // Fetches depend on what's been read so far and can't be shared
+          final Set<String> requested = ConcurrentHashMap.newKeySet();
+          key = new Object();
+
+          c = new LazyNamedConfigImpl(name + named, named, requested, resilient(name + named,
+              () -> requested.isEmpty() ? new HashMap<>()
+                  : source.get(null, new HashSet<>(requested))),
+              compact);
+
+        } else if (namedPaths.length > 0) {
+          c = new ConfigImpl(name + named, resilient(name + named,
+              SharedFetcher.acquire(key, () -> () -> source.get(null, named))), compact);
+        } else {
+          c = new ConfigImpl(name + ":" + path, resilient(name + ":" + path,
+              SharedFetcher.acquire(key, () -> () -> source.get(path, new HashSet<>()))),
+              compact);
+        }
+
+        if (this.timerTTL > 0) {
+          scheduler.get().schedule(key, c, this.timerTTL * 1000L);
+        }
+
+        if (this.watch) {
+          watchRepo(c);
+        }
+
+        return c;
+
+      } else {
+
+        logger.error("Unable find config source '" + sourceName + "' to load uri " + uri);
+
+        throw new InitializationException(
+            "Unable find config source '" + sourceName + "' to load uri " + uri);
+
+      }
+    }
+
+    /**
+     * Look up the path for this host in the hosts.properties at the root of the repo, matching the
+     * host name, then the environment, then wildcard patterns and finally '*'. An explicit path or
+     * named paths take precedence, paths mapped outside the repo are ignored.
+     * 
+     * @return
+     */
+    public ConfigrdConfigClientBuilder discover() {
+      return discover(DEFAULT_HOSTS_FILE);
+    }
+
+    /**
+     * @param hostsFile name of the hosts file relative to the repo root or an absolute uri
+     * @return
+     */
+    public ConfigrdConfigClientBuilder discover(String hostsFile) {
+      this.hostsFile = hostsFile;
+      return this;
+    }
+
+    /**
+     * Fetch and merge each named path only once a key in its namespace is first read, i.e. a key
+     * starting with "db." for named path "db". Reading a key outside every named path's namespace,
+     * or all configs such as through {@link ClientConfig#asMap()}, loads every named path.
+     * 
+     * @return
+     */
+    public ConfigrdConfigClientBuilder lazy() {
+      this.lazy = true;
+      return this;
+    }
+
+    public ConfigrdConfigClientBuilder named(String... names) {
+      this.namedPaths = names;
+      return this;
+    }
+
+    public ConfigrdConfigClientBuilder repo(String repo) {
+      this.repoName = repo;
+      return this;
+    }
+
+    /**
+     * Reload whenever the config files on disk change rather than polling, watching the directory
+     * of the path or of every named path. Only repos with file and classpath uris resolving to
+     * files on disk can be watched.
+     * 
+     * @return
+     */
+    public ConfigrdConfigClientBuilder watch() {
+      this.watch = true;
+      return this;
+    }
+
+    private void discoverPath() {
+
+      final Optional<ReposFile> repos = readRepos();
+      final Optional<String> root = repos.flatMap(r -> r.getUri(repoName));
+
+      if (!root.isPresent()) {
+        if (repos.isPresent())
+          logger.warn("Unable to discover config path, repo " + repoName + " isn't defined in "
+              + vals.get(RepoDef.URI_FIELD));
+        return;
+      }
+
+      final Optional<String> found = discoverConfigPath(root.get(), hostsFile, this::open);
+
+      if (!found.isPresent())
+        return;
+
+      final String base = root.get().replaceFirst("/*$", "/");
+
+      if (found.get().startsWith(base)) {
+        this.path = found.get().substring(base.length());
+      } else {
+        logger.warn("Ignoring config path " + found.get() + " outside of repo " + repoName);
+      }
+    }
+
+    private Optional<ReposFile> readRepos() {
+
+      final String file = (String) vals.get(RepoDef.URI_FIELD);
 
-      final MergeStrategy merge = new DefaultMergeStrategy();
+      try (InputStream in = open(URI.create(file))) {
 
-      if (configSource != null) {
+        if (in == null) {
+          logger.warn("Unable to find configrd config " + file);
+          return Optional.empty();
+        }
 
-        Map<String, Object> p = configSource.get(path, named);
-        merge.addConfig(p);
+        return Optional.of(ReposFile.read(file, readAll(in)));
 
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Unable to read configrd config " + file + ": " + e.getMessage());
+        return Optional.empty();
       }
-
-      // Variables defined on host override
-      merge.addConfig((Map) environment.getEnvironment());
-      Map<String, Object> merged = merge.merge();
-      loadedProperties.set(PropertiesProcessor.asProperties(new StringUtils(merged).filled()));
-      logger.info("Configs loaded.");
     }
 
-  }
+    private void watchRepo(ConfigImpl c) {
 
-  public class ConfigrdConfigClientBuilder extends BaseClientBuilder {
+      final Optional<ReposFile> read = readRepos();
 
-    private String repoName = "default";
-    private String[] namedPaths = new String[] {};
+      if (!read.isPresent())
+        return;
 
-    protected ConfigrdConfigClientBuilder(String uri) {
-      super(uri);
-    }
+      final ReposFile repos = read.get();
+      final Optional<String> root = repos.getUri(repoName);
 
-    public Config build() {
+      if (!root.isPresent()) {
+        logger.warn("Unable to watch configs, repo " + repoName + " isn't defined in "
+            + vals.get(RepoDef.URI_FIELD));
+        return;
+      }
 
-      final String sourceName = (String) vals.get(RepoDef.SOURCE_NAME_FIELD);
-      this.sourceResolver = new ConfigSourceResolver(vals);
-      Optional<ConfigSource> cs = sourceResolver.findConfigSourceByName(repoName);
+      List<String> paths = new ArrayList<>();
 
-      if (cs.isPresent()) {
+      if (namedPaths.length > 0) {
 
-        ConfigImpl c = null;
-        
-        if (namedPaths.length > 0) {
-          c = new ConfigImpl(cs.get(), new HashSet<>(Arrays.asList(namedPaths)));
-        } else {
-          c = new ConfigImpl(cs.get(), path);
-        }
+        Map<String, String> named = repos.getNamed(repoName);
 
-        if (this.timerTTL > 0) {
-          timer.get().schedule(new ReloadTask(c), (this.timerTTL * 1000), (this.timerTTL * 1000));
+        for (String n : namedPaths) {
+          if (named.containsKey(n))
+            paths.add(named.get(n));
         }
 
-        return c;
-
       } else {
-
-        logger.error("Unable find config source '" + sourceName + "' to load uri " + uri);
-
-        throw new InitializationException(
-            "Unable find config source '" + sourceName + "' to load uri " + uri);
-
+        paths.add(path);
       }
-    }
-
-    public ConfigrdConfigClientBuilder named(String... names) {
-      this.namedPaths = names;
-      return this;
-    }
 
-    public ConfigrdConfigClientBuilder repo(String repo) {
-      this.repoName = repo;
-      return this;
+      watch(c, root.get(), paths);
     }
 
   }
 
-  public class ConfigrdServerClientBuilder {
+  public class ConfigrdServerClientBuilder implements ConfigBuilder {
 
     private String uri;
     private String repoName;
@@ -251,41 +1003,27 @@ public class ConfigClient {
     private String path;
     protected Integer timerTTL = 0;
     protected boolean trustCerts = false;
+    protected int connectTimeout = 10;
+    protected int readTimeout = 30;
     protected OkHttpClient client;
+    protected Path cacheDir;
+    protected boolean compact = false;
+    protected RetryPolicy retry = RetryPolicy.NONE;
+    protected int breakerFailures = 0;
+    protected long breakerOpenMillis = 0;
+    protected boolean push = false;
+    protected long reconnectMillis = 1000;
 
     protected ConfigrdServerClientBuilder(String uri) {
       this.uri = uri;
     }
 
-    public Config build() {
-
-      final OkHttpClient.Builder builder = new OkHttpClient.Builder();
-
-      if (this.trustCerts) {
-        try {
-
-          final SSLContext sslContext = SSLContext.getInstance("TSL");
-          sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-          final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
-
-          builder.sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0]);
-          builder.hostnameVerifier(new HostnameVerifier() {
-            @Override
-            public boolean verify(String hostname, SSLSession session) {
-              return true;
-            }
-          });
+    public ClientConfig build() {
 
-        } catch (Exception e) {
-          logger.error(e.getMessage());
-        }
+      if (client == null) {
+        client = HttpClients.get(trustCerts, connectTimeout, readTimeout);
       }
 
-      builder.connectTimeout(10, TimeUnit.SECONDS);
-      builder.writeTimeout(10, TimeUnit.SECONDS);
-      builder.readTimeout(30, TimeUnit.SECONDS);
-
-      client = builder.build();
       URI i = URI.create(uri);
 
       if (path.startsWith("/")) {
@@ -317,37 +1055,102 @@ public class ConfigClient {
         httpBuilder.addQueryParameter("r", repoName);
       }
 
-      Request.Builder request = new Request.Builder().url(httpBuilder.build())
-          .addHeader("Accept", "application/json").get();
-
-      logger.info("Fetching " + httpBuilder.toString());
+      final HttpUrl url = httpBuilder.build();
+      final ConfigMetrics metrics = ConfigClient.metrics.get();
+      final SnapshotCache cache =
+          cacheDir == null ? null : new SnapshotCache(cacheDir, url.toString());
+      // Configs with the same source and settings share fetches and are refreshed together
+      final Object source = Arrays.asList(url, client, metrics, cacheDir, retry);
+      final SharedFetcher.Handle shared = SharedFetcher.acquire(source,
+          () -> new ConfigrdServerFetcher(url.toString(), client, url, metrics, cache));
+
+      final CircuitBreaker breaker =
+          breakerFailures > 0 ? new CircuitBreaker(breakerFailures, breakerOpenMillis) : null;
+
+      ServerConfigImpl c = new ServerConfigImpl(url.toString(),
+          ResilientFetcher.wrap(url.toString(), shared, retry, breaker), compact);
+
+      if (shared.isFromCache()) {
+        // Started from the cache, revalidate with the server in the background
+        loader.execute(() -> {
+          try {
+            c.refresh();
+          } catch (Exception e) {
+            logger.error("Error refreshing configs", e);
+          }
+        });
+      }
 
-      try (Response call = client.newCall(request.build()).execute()) {
+      if (this.push) {
 
-        if (call.isSuccessful() && !call.isRedirect() && call.body().contentLength() > 0) {
+        // Polling is only the fallback while not subscribed
+        long poll = this.timerTTL > 0 ? this.timerTTL * 1000L : DEFAULT_PUSH_POLL;
+        c.push = new PushSubscriber(url, client, c, poll, reconnectMillis);
+        c.push.start();
 
-          StreamPacket packet = new StreamPacket(URI.create(uri), call.body().byteStream());
-          packet.setETag(call.header("ETag"));
-          packet.putAll(ProcessorSelector.process(Type.JSON, packet.bytes()));
-          return packet;
+      } else if (this.timerTTL > 0) {
+        scheduler.get().schedule(source, c, this.timerTTL * 1000L);
+      }
 
-        } else if (call.isSuccessful() && call.isRedirect()) {
+      return c;
+    }
 
-          logger.error("Redirect handling not implemented. Server returned location "
-              + call.header("location"));
-        }
+    /**
+     * Keep the last configs fetched from the server on disk. Configs are then loaded from disk at
+     * start up without waiting on the server and revalidated with the server in the background.
+     * 
+     * @param dir cache directory
+     * @return
+     */
+    public ConfigrdServerClientBuilder cacheDir(String dir) {
+      this.cacheDir = Paths.get(dir);
+      return this;
+    }
 
-      } catch (UnknownHostException e) {
+    /**
+     * After a number of consecutive failed refreshes stop calling the server for a while and keep
+     * serving the last loaded configs.
+     * 
+     * @param failures consecutive failures opening the circuit
+     * @param openMillis how long to wait before trying the server again
+     * @return
+     */
+    public ConfigrdServerClientBuilder circuitBreaker(int failures, long openMillis) {
+      this.breakerFailures = failures;
+      this.breakerOpenMillis = openMillis;
+      return this;
+    }
 
-        logger.error(e.getMessage(), e);
-        throw new IllegalArgumentException(e.getMessage());
+    /**
+     * Use a specific http client instead of the shared one matching this builder's trust and
+     * timeout settings.
+     * 
+     * @param client
+     * @return
+     */
+    public ConfigrdServerClientBuilder client(OkHttpClient client) {
+      this.client = client;
+      return this;
+    }
 
-      } catch (Exception e) {
-        logger.debug(e.getMessage(), e);
-        // nothing else
-      }
+    /**
+     * Hold configs in a compact, off-heap snapshot. Meant for very large configs, reads decode
+     * values and are slower.
+     * 
+     * @return
+     */
+    public ConfigrdServerClientBuilder compact() {
+      this.compact = true;
+      return this;
+    }
 
-      return new StreamPacket(URI.create(uri));
+    /**
+     * @param seconds connect and write timeout. default: 10
+     * @return
+     */
+    public ConfigrdServerClientBuilder connectTimeout(int seconds) {
+      this.connectTimeout = seconds;
+      return this;
     }
 
     public ConfigrdServerClientBuilder named(String... names) {
@@ -360,6 +1163,28 @@ public class ConfigClient {
       return this;
     }
 
+    /**
+     * Subscribe to config change events streamed by the server instead of polling. While the
+     * subscription is down configs are polled at the {@link #refresh(int)} period, or every 30
+     * seconds if not set, and the subscription is retried with backoff. Configs from a server that
+     * doesn't stream events are only polled.
+     * 
+     * @return
+     */
+    public ConfigrdServerClientBuilder push() {
+      this.push = true;
+      return this;
+    }
+
+    /**
+     * @param seconds read timeout. default: 30
+     * @return
+     */
+    public ConfigrdServerClientBuilder readTimeout(int seconds) {
+      this.readTimeout = seconds;
+      return this;
+    }
+
     public ConfigrdServerClientBuilder refresh(int seconds) {
       this.timerTTL = seconds;
       return this;
@@ -370,6 +1195,18 @@ public class ConfigClient {
       return this;
     }
 
+    /**
+     * Retry failed fetches with exponential backoff and jitter.
+     * 
+     * @param attempts total attempts per fetch, including the first. default: 1
+     * @param backoffMillis delay before the first retry, doubled for each further retry
+     * @return
+     */
+    public ConfigrdServerClientBuilder retry(int attempts, long backoffMillis) {
+      this.retry = new RetryPolicy(attempts, backoffMillis);
+      return this;
+    }
+
     /**
      * In case connecting over http/s, trust certs by default.
      * 
@@ -382,37 +1219,21 @@ public class ConfigClient {
     }
   }
 
-  private interface Refresh {
-    public void refresh();
-  }
-
-  private class ReloadTask extends TimerTask {
-
-    private Refresh client;
-
-    ReloadTask(Refresh client) {
-      this.client = client;
-    }
-
-    @Override
-    public void run() {
-      try {
-
-        client.refresh();
-
-      } catch (Exception e) {
-        logger.error("Error refreshing configs", e);
-      }
-    }
-  }
+  public class SimpleConfigClientBuilder
+      extends BaseClientBuilder<SimpleConfigClientBuilder> {
 
-  public class SimpleConfigClientBuilder extends BaseClientBuilder {
+    private boolean watch = false;
+    private String hostsFile;
 
     protected SimpleConfigClientBuilder(String uri) {
       super(uri);
     }
 
-    public Config build() {
+    public ClientConfig build() {
+
+      if (hostsFile != null && path == null) {
+        discoverPath();
+      }
 
       final String sourceName = (String) vals.get(RepoDef.SOURCE_NAME_FIELD);
       this.sourceResolver = new ConfigSourceResolver();
@@ -420,9 +1241,19 @@ public class ConfigClient {
 
       if (cs.isPresent()) {
 
-        ConfigImpl c = new ConfigImpl(cs.get(), path);
+        final ConfigSource source = cs.get();
+        final String name = vals.get(RepoDef.URI_FIELD) + ":" + path;
+        final Object key = Arrays.asList(settings(), path);
+
+        ConfigImpl c = new ConfigImpl(name, resilient(name,
+            SharedFetcher.acquire(key, () -> () -> source.get(path, new HashSet<>()))), compact);
+
         if (this.timerTTL > 0) {
-          timer.get().schedule(new ReloadTask(c), (this.timerTTL * 1000), (this.timerTTL * 1000));
+          scheduler.get().schedule(key, c, this.timerTTL * 1000L);
+        }
+
+        if (this.watch) {
+          watch(c, (String) vals.get(RepoDef.URI_FIELD), Collections.singleton(path));
         }
 
         return c;
@@ -437,26 +1268,130 @@ public class ConfigClient {
       }
     }
 
+    /**
+     * Reload whenever the config files on disk change rather than polling. Only file and classpath
+     * uris resolving to files on disk can be watched.
+     * 
+     * @return
+     */
+    public SimpleConfigClientBuilder watch() {
+      this.watch = true;
+      return this;
+    }
+
+    /**
+     * Look up the config path for this host in the repo's hosts.properties, matching the host
+     * name, then the environment, then wildcard patterns and finally '*'. An explicit path takes
+     * precedence.
+     * 
+     * @return
+     */
+    public SimpleConfigClientBuilder discover() {
+      return discover(DEFAULT_HOSTS_FILE);
+    }
+
+    /**
+     * @param hostsFile name of the hosts file relative to the repo root or an absolute uri
+     * @return
+     */
+    public SimpleConfigClientBuilder discover(String hostsFile) {
+      this.hostsFile = hostsFile;
+      return this;
+    }
+
+    private void discoverPath() {
+
+      final String root = (String) vals.get(RepoDef.URI_FIELD);
+      final Optional<String> found = discoverConfigPath(root, hostsFile, this::open);
+
+      if (!found.isPresent())
+        return;
+
+      final String mapped = found.get();
+      final String base = root.replaceFirst("/*$", "/");
+
+      if (mapped.startsWith(base)) {
+        this.path = mapped.substring(base.length());
+      } else {
+        // Mapped outside of this repo, load from the mapped uri instead
+        vals.put(RepoDef.URI_FIELD, mapped);
+        vals.put(RepoDef.SOURCE_NAME_FIELD, detectSourceName(mapped));
+        this.path = "";
+      }
+    }
+
   }
 
   private final static Logger logger = LoggerFactory.getLogger(ConfigClient.class);
 
-  private static final AtomicReference<Timer> timer = new AtomicReference<Timer>(new Timer(true));
+  private static final AtomicReference<RefreshScheduler> scheduler =
+      new AtomicReference<>(new RefreshScheduler());
 
-  private static final TrustManager[] trustAllCerts = new TrustManager[] {new X509TrustManager() {
-    @Override
-    public void checkClientTrusted(java.security.cert.X509Certificate[] chain, String authType)
-        throws CertificateException {}
+  private static final AtomicReference<FileWatcher> watcher = new AtomicReference<>();
 
-    @Override
-    public void checkServerTrusted(java.security.cert.X509Certificate[] chain, String authType)
-        throws CertificateException {}
+  private static final AtomicReference<ConfigMetrics> metrics =
+      new AtomicReference<>(ConfigMetrics.NOOP);
 
-    @Override
-    public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-      return new java.security.cert.X509Certificate[] {};
+  private static final long DEFAULT_PUSH_POLL = 30_000;
+
+  private static final String DEFAULT_HOSTS_FILE = "hosts.properties";
+
+  // Timeout in seconds reading repos and hosts files over http(s)
+  private static final int FILE_TIMEOUT = 15;
+
+  // Hosts files last read by uri with their mappings compiled, kept while the file is unchanged
+  private static final Map<URI, HostsFile> hostsFiles = new ConcurrentHashMap<>();
+
+  private static final int LOADER_THREADS =
+      Math.max(4, Math.min(16, Runtime.getRuntime().availableProcessors() * 2));
+
+  private static final AtomicInteger loaderThreads = new AtomicInteger();
+
+  private static final ExecutorService loader;
+
+  static {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(LOADER_THREADS, LOADER_THREADS, 30,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+          Thread t = new Thread(r, "configrd-loader-" + loaderThreads.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+    pool.allowCoreThreadTimeOut(true);
+    loader = pool;
+  }
+
+  /**
+   * Build several configs concurrently on a bounded, shared loader pool so start up takes as long
+   * as the slowest source rather than the sum of all sources.
+   * 
+   * @param builders
+   * @return one future per builder in the same order
+   */
+  public static List<CompletableFuture<ClientConfig>> buildAll(ConfigBuilder... builders) {
+    return buildAll(Arrays.asList(builders));
+  }
+
+  public static List<CompletableFuture<ClientConfig>> buildAll(
+      Collection<? extends ConfigBuilder> builders) {
+    return buildAll(loader, builders);
+  }
+
+  /**
+   * @param executor executor to fetch sources on
+   * @param builders
+   * @return one future per builder in the same order
+   */
+  public static List<CompletableFuture<ClientConfig>> buildAll(Executor executor,
+      Collection<? extends ConfigBuilder> builders) {
+
+    List<CompletableFuture<ClientConfig>> configs = new ArrayList<>(builders.size());
+
+    for (ConfigBuilder b : builders) {
+      configs.add(CompletableFuture.supplyAsync(b::build, executor));
     }
-  }};
+
+    return configs;
+  }
 
   /**
    * Build a config client sourcing configurations directly from a known absolute URI location such
@@ -493,6 +1428,46 @@ public class ConfigClient {
     return new ConfigClient().new ConfigrdServerClientBuilder(uri);
   }
 
+  /**
+   * Report load metrics of every config built from now on.
+   * 
+   * @param metrics i.e. {@link io.configrd.client.metrics.JmxConfigMetrics}
+   */
+  public static void setMetrics(ConfigMetrics metrics) {
+    ConfigClient.metrics.set(metrics == null ? ConfigMetrics.NOOP : metrics);
+  }
+
+  /**
+   * Stop refreshing all configs and release the refresh threads. Configs built afterwards are
+   * refreshed by a new scheduler.
+   */
+  public static void shutdown() {
+
+    scheduler.getAndSet(new RefreshScheduler()).shutdown();
+
+    FileWatcher w = watcher.getAndSet(null);
+    if (w != null) {
+      w.close();
+    }
+  }
+
+  private static FileWatcher watcher() throws IOException {
+
+    FileWatcher w = watcher.get();
+
+    if (w == null) {
+      synchronized (watcher) {
+        w = watcher.get();
+        if (w == null) {
+          w = new FileWatcher();
+          watcher.set(w);
+        }
+      }
+    }
+
+    return w;
+  }
+
   public final Environment environment = new Environment();
 
   /**
@@ -523,10 +1498,139 @@ public class ConfigClient {
     return environment;
   }
 
-  protected Optional<URI> resolveConfigPathFromConfigrd(URI serverPath) {
+  /**
+   * Look up this host's config path in a hosts file mapping host names, environments or wildcard
+   * patterns to config uris.
+   * 
+   * @param hostsPath classpath, file or http(s) uri of the hosts file
+   * @return
+   */
+  protected Optional<URI> resolveConfigPathFromConfigrd(URI hostsPath) {
+    return resolveConfigPath(hostsPath,
+        u -> open(u, HttpClients.get(false, FILE_TIMEOUT, FILE_TIMEOUT), null));
+  }
+
+  private Optional<URI> resolveConfigPath(URI hostsPath, Opener opener) {
+
+    final byte[] bytes;
+
+    try (InputStream in = opener.open(hostsPath)) {
+
+      if (in == null) {
+        logger.warn("Unable to find hosts file " + hostsPath);
+        return Optional.empty();
+      }
+
+      bytes = readAll(in);
+
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to read hosts file " + hostsPath + ": " + e.getMessage());
+      return Optional.empty();
+    }
+
+    final byte[] fingerprint = Fingerprint.of(bytes);
+    HostsFile hosts = hostsFiles.get(hostsPath);
+
+    // Mappings are compiled once and kept for as long as the file is unchanged
+    if (hosts == null || !Arrays.equals(fingerprint, hosts.fingerprint)) {
+
+      Properties props = new Properties();
+
+      try {
+        props.load(new ByteArrayInputStream(bytes));
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Unable to read hosts file " + hostsPath + ": " + e.getMessage());
+        return Optional.empty();
+      }
+
+      Map<String, Object> mappings = new HashMap<>();
+      props.forEach((k, v) -> mappings.put(String.valueOf(k), v));
+
+      hosts = new HostsFile(fingerprint, HostsLookup.compile(mappings));
+      hostsFiles.put(hostsPath, hosts);
+    }
+
+    final Map<?, ?> env = environment.getEnvironment();
+
+    return hosts.lookup.lookup((String) env.get(Environment.HOST_NAME),
+        (String) env.get(Environment.ENV_NAME));
+
+  }
+
+  /**
+   * @param root repo root uri
+   * @param hostsFile name of the hosts file relative to the root or an absolute uri
+   * @param opener reads the hosts file
+   * @return the config uri mapped to this host
+   */
+  private Optional<String> discoverConfigPath(String root, String hostsFile, Opener opener) {
+
+    final URI hosts = URI.create(hostsFile).isAbsolute() ? URI.create(hostsFile)
+        : URI.create(root.replaceFirst("/*$", "/") + hostsFile.replaceFirst("^/+", ""));
+
+    Optional<URI> found = resolveConfigPath(hosts, opener);
+
+    if (!found.isPresent()) {
+      logger.warn("No config path found in " + hosts + ", loading from the root of " + root);
+      return Optional.empty();
+    }
+
+    logger.info("Discovered config path " + found.get() + " from " + hosts);
+    return Optional.of(found.get().toString());
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+
+    while ((n = in.read(buffer)) >= 0) {
+      out.write(buffer, 0, n);
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * @param uri classpath, file or http(s) uri
+   * @param client client for http(s) uris
+   * @param credentials basic auth credentials sent with http(s) requests or null
+   * @return the file's contents or null if not found
+   * @throws IOException
+   */
+  private static InputStream open(URI uri, OkHttpClient client, String credentials)
+      throws IOException {
+
+    String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+
+    if (scheme.equals("classpath")) {
+
+      String location = uri.getSchemeSpecificPart().replaceFirst("^/+", "");
+      return ConfigClient.class.getClassLoader().getResourceAsStream(location);
+
+    } else if (scheme.startsWith("http")) {
+
+      Request.Builder request = new Request.Builder().url(uri.toString()).get();
 
-    return Optional.empty();
+      if (credentials != null)
+        request.header("Authorization", credentials);
 
+      Response response = client.newCall(request.build()).execute();
+
+      if (!response.isSuccessful()) {
+        response.close();
+        return null;
+      }
+
+      return response.body().byteStream();
+
+    } else {
+
+      Path file = scheme.isEmpty() ? Paths.get(uri.getPath()) : Paths.get(uri);
+      return Files.isRegularFile(file) ? Files.newInputStream(file) : null;
+
+    }
   }
 
 }
@@ -0,0 +1,28 @@
+package io.configrd.client;
+
+import java.util.Map;
+
+/**
+ * Fetches the raw, unmerged configs backing a {@link ConfigClient} config.
+ */
+interface ConfigFetcher {
+
+  /**
+   * @return the fetched configs or null if the source reports they haven't changed since the last
+   *         fetch
+   */
+  public Map<String, Object> fetch();
+
+  /**
+   * @return true if the configs last fetched were served from a local cache rather than the source
+   */
+  public default boolean isFromCache() {
+    return false;
+  }
+
+  /**
+   * Release anything held for fetching.
+   */
+  public default void close() {}
+
+}
@@ -0,0 +1,11 @@
+package io.configrd.client;
+
+/**
+ * Notified when refreshing a config changes any of the values it listens to.
+ */
+@FunctionalInterface
+public interface ConfigListener {
+
+  public void onChange(ConfigChangeEvent event);
+
+}
@@ -0,0 +1,57 @@
+package io.configrd.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configs resulting from applying a key level patch sent by a configrd server to the configs it
+ * was based on. Holds the full result so it can be used like any fetched configs, as well as the
+ * patch itself so a config that loaded the base can apply just the changed keys. The base is only
+ * known by its ETag so patches applied one after another don't keep every earlier version alive.
+ */
+final class ConfigPatch extends ServerConfigs {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String baseETag;
+  private final Map<String, Object> set;
+  private final Set<String> removed;
+
+  private ConfigPatch(Map<String, Object> base, String baseETag, String etag,
+      Map<String, Object> set, Set<String> removed) {
+    super(etag);
+    this.baseETag = baseETag;
+    this.set = Collections.unmodifiableMap(set);
+    this.removed = Collections.unmodifiableSet(removed);
+
+    putAll(base);
+    keySet().removeAll(removed);
+    putAll(set);
+  }
+
+  /**
+   * @param base configs the patch was made against
+   * @param baseETag ETag of the base
+   * @param etag ETag of the result
+   * @param set keys added or changed
+   * @param removed keys removed
+   * @return
+   */
+  static ConfigPatch apply(Map<String, Object> base, String baseETag, String etag,
+      Map<String, Object> set, Set<String> removed) {
+    return new ConfigPatch(base, baseETag, etag, set, removed);
+  }
+
+  String getBaseETag() {
+    return baseETag;
+  }
+
+  Set<String> getRemoved() {
+    return removed;
+  }
+
+  Map<String, Object> getSet() {
+    return set;
+  }
+}
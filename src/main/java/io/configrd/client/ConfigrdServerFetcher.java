@@ -0,0 +1,276 @@
+package io.configrd.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.configrd.client.metrics.ConfigMetrics;
+import io.configrd.client.metrics.ConfigMetrics.Stage;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Fetches configs from a configrd server. The ETag of the last response is sent back as
+ * If-None-Match so an unchanged config is answered with a 304 and never re-parsed. Responses are
+ * parsed as they stream in, chunked or gzip compressed.
+ *
+ * Along with the ETag the client offers to accept a patch (RFC 3229, "A-IM: configrd-patch"). A
+ * server supporting it may answer with 226 and only the keys set or removed since that ETag:
+ * {"set": {"key": "value"}, "remove": ["key"]}.
+ */
+class ConfigrdServerFetcher implements ConfigFetcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConfigrdServerFetcher.class);
+
+  // RFC 3229 instance manipulation for key level patches
+  static final String PATCH = "configrd-patch";
+  private static final String SET = "set.";
+  private static final String REMOVE = "remove[";
+
+  private final String name;
+  private final OkHttpClient client;
+  private final HttpUrl url;
+  private final ConfigMetrics metrics;
+  private final SnapshotCache cache;
+  private final AtomicBoolean started = new AtomicBoolean();
+  private volatile boolean fromCache = false;
+  private volatile String etag;
+  private volatile byte[] fingerprint;
+
+  // Last full configs, the base for patches
+  private volatile ServerConfigs last;
+
+  /**
+   * @param name
+   * @param client
+   * @param url
+   * @param metrics
+   * @param cache last known good configs to start from and keep up to date or null
+   */
+  ConfigrdServerFetcher(String name, OkHttpClient client, HttpUrl url, ConfigMetrics metrics,
+      SnapshotCache cache) {
+    this.name = name;
+    this.client = client;
+    this.url = url;
+    this.metrics = metrics;
+    this.cache = cache;
+  }
+
+  /**
+   * The first fetch is served from the cache if there is one, later fetches revalidate it with the
+   * server.
+   */
+  @Override
+  public Map<String, Object> fetch() {
+
+    if (cache != null && started.compareAndSet(false, true)) {
+
+      Optional<SnapshotCache.Entry> cached = cache.read();
+
+      if (cached.isPresent()) {
+        logger.info("Loaded configs for " + url.toString() + " from " + cache.getFile());
+        final ServerConfigs configs = new ServerConfigs(cached.get().etag);
+        configs.putAll(cached.get().configs);
+
+        this.etag = configs.getETag();
+        this.last = configs;
+        this.fromCache = true;
+        return configs;
+      }
+    }
+
+    this.fromCache = false;
+
+    Request.Builder request =
+        new Request.Builder().url(url).addHeader("Accept", "application/json").get();
+
+    final String etag = this.etag;
+
+    if (etag != null) {
+      request.addHeader("If-None-Match", etag);
+
+      if (last != null)
+        request.addHeader("A-IM", PATCH);
+    }
+
+    logger.info("Fetching " + url.toString());
+
+    try (Response call = client.newCall(request.build()).execute()) {
+
+      if (call.code() == 304) {
+
+        logger.debug("Configs at " + url.toString() + " not modified since " + etag);
+        return null;
+
+      } else if (call.code() == 226 && PATCH.equals(call.header("IM"))) {
+
+        final ServerConfigs base = this.last;
+
+        if (base == null || etag == null) {
+          this.etag = null;
+          throw new UncheckedIOException(new IOException(
+              "Server sent a patch for configs never fetched from " + url.toString()));
+        }
+
+        final ConfigPatch p = patch(base, call.header("ETag"),
+            parse(call, Fingerprint.digest(), new HashMap<>()));
+        logger.debug("Patched configs at " + url.toString() + " from " + etag);
+
+        this.etag = p.getETag();
+        this.fingerprint = null;
+        this.last = p;
+
+        if (cache != null) {
+          cache.write(this.etag, p);
+        }
+
+        return p;
+
+      } else if (call.isSuccessful() && call.body() != null && call.body().contentLength() != 0) {
+
+        final MessageDigest digest = Fingerprint.digest();
+        final ServerConfigs p = parse(call, digest, new ServerConfigs(call.header("ETag")));
+
+        final byte[] fingerprint = digest.digest();
+        this.etag = p.getETag();
+
+        // Servers not supporting ETags may still return the same configs
+        if (Arrays.equals(fingerprint, this.fingerprint)) {
+          return null;
+        }
+
+        this.fingerprint = fingerprint;
+        this.last = p;
+
+        if (cache != null) {
+          cache.write(this.etag, p);
+        }
+
+        return p;
+
+      }
+
+      final String problem = call.isRedirect()
+          ? "redirected to " + call.header("Location") + ", which isn't followed,"
+          : call.isSuccessful() ? "returned no configs" : "returned " + call.code();
+
+      // Keep what's loaded rather than replacing it with nothing, only a first load may be empty
+      if (last != null || call.code() >= 500 || call.code() == 429) {
+        throw new UncheckedIOException(
+            new IOException("Server " + problem + " fetching configs from " + url.toString()));
+      }
+
+      logger.warn("Server " + problem + " fetching configs from " + url.toString());
+
+    } catch (UnknownHostException e) {
+
+      logger.error(e.getMessage(), e);
+      throw new IllegalArgumentException(e.getMessage());
+
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to fetch configs from " + url.toString(), e);
+    }
+
+    return new HashMap<>();
+  }
+
+  /**
+   * Parses while reading so neither chunked nor large bodies are buffered in full.
+   */
+  private <M extends Map<String, Object>> M parse(Response call, MessageDigest digest, M configs)
+      throws IOException {
+
+    InputStream in = call.body().byteStream();
+
+    if ("gzip".equalsIgnoreCase(call.header("Content-Encoding"))) {
+      in = new GZIPInputStream(in);
+    }
+
+    final CountingInputStream counted = new CountingInputStream(new DigestInputStream(in, digest));
+
+    final long start = System.nanoTime();
+    final M p =
+        JsonStreamParser.parse(new InputStreamReader(counted, StandardCharsets.UTF_8), configs);
+    metrics.timing(name, Stage.PARSE, System.nanoTime() - start);
+    metrics.bytesFetched(name, counted.count);
+
+    return p;
+  }
+
+  /**
+   * @param base
+   * @param etag of the patched configs
+   * @param patch flattened {"set": {...}, "remove": [...]}
+   * @return
+   */
+  private static ConfigPatch patch(ServerConfigs base, String etag, Map<String, Object> patch) {
+
+    final Map<String, Object> set = new HashMap<>();
+    final Set<String> removed = new HashSet<>();
+
+    for (Map.Entry<String, Object> e : patch.entrySet()) {
+
+      String key = e.getKey();
+
+      if (key.startsWith(SET)) {
+        set.put(key.substring(SET.length()), e.getValue());
+      } else if (key.startsWith(REMOVE)) {
+        removed.add(String.valueOf(e.getValue()));
+      }
+    }
+
+    return ConfigPatch.apply(base, base.getETag(), etag, set, removed);
+  }
+
+  private static class CountingInputStream extends FilterInputStream {
+
+    private long count = 0;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0)
+        count++;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0)
+        count += n;
+      return n;
+    }
+  }
+
+  String getETag() {
+    return etag;
+  }
+
+  @Override
+  public boolean isFromCache() {
+    return fromCache;
+  }
+
+}
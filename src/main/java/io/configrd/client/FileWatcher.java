@@ -0,0 +1,218 @@
+package io.configrd.client;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.configrd.core.util.StringUtils;
+
+/**
+ * Reloads configs from files on disk when they change instead of polling. Changes are debounced so
+ * a burst of writes results in a single reload once the files settle.
+ * 
+ * Configs are held weakly and stop being watched once no longer referenced.
+ */
+final class FileWatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(FileWatcher.class);
+
+  static final long DEBOUNCE_MILLIS = 250;
+
+  private final WatchService service;
+
+  private final Map<Path, List<Watch>> watches = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService debouncer;
+
+  FileWatcher() throws IOException {
+
+    this.service = FileSystems.getDefault().newWatchService();
+
+    ScheduledThreadPoolExecutor debouncer = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "configrd-file-reload");
+      t.setDaemon(true);
+      return t;
+    });
+    debouncer.setRemoveOnCancelPolicy(true);
+    this.debouncer = debouncer;
+
+    Thread t = new Thread(this::run, "configrd-file-watcher");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  /**
+   * Resolve the directories to watch for a config loaded from a file or classpath uri. The config's
+   * own directory and every directory up to the root uri are watched since configs are merged
+   * along the path.
+   * 
+   * @param uri root of the configs
+   * @param path path to the config below the root, a directory or file
+   * @return the directories or empty if the configs aren't files on disk
+   */
+  static Optional<List<Path>> resolve(String uri, String path) {
+
+    Path root = null;
+
+    try {
+
+      if (uri.toLowerCase().startsWith("file:")) {
+
+        root = Paths.get(URI.create(uri));
+
+      } else if (uri.toLowerCase().startsWith("classpath:")) {
+
+        String location = uri.substring("classpath:".length()).replaceFirst("^/+", "");
+        URL url = FileWatcher.class.getClassLoader().getResource(location);
+
+        if (url != null && "file".equals(url.getProtocol())) {
+          root = Paths.get(url.toURI());
+        }
+      }
+
+    } catch (Exception e) {
+      logger.debug(e.getMessage(), e);
+    }
+
+    if (root == null)
+      return Optional.empty();
+
+    if (!Files.isDirectory(root)) {
+      root = root.getParent();
+    }
+
+    Path target = root;
+
+    if (StringUtils.hasText(path)) {
+      target = root.resolve(path.replaceFirst("^/+", ""));
+    }
+
+    if (!Files.isDirectory(target)) {
+      target = target.getParent();
+    }
+
+    List<Path> dirs = new ArrayList<>();
+
+    for (Path dir = target.normalize(); dir != null
+        && dir.startsWith(root.normalize()); dir = dir.getParent()) {
+      if (Files.isDirectory(dir))
+        dirs.add(dir);
+    }
+
+    return dirs.isEmpty() ? Optional.empty() : Optional.of(dirs);
+  }
+
+  void watch(List<Path> dirs, ConfigClient.ConfigImpl config) throws IOException {
+
+    Watch watch = new Watch(config);
+
+    for (Path dir : dirs) {
+      dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      watches.computeIfAbsent(dir, d -> new CopyOnWriteArrayList<>()).add(watch);
+    }
+  }
+
+  void close() {
+
+    try {
+      service.close();
+    } catch (IOException e) {
+      logger.debug(e.getMessage(), e);
+    }
+
+    debouncer.shutdownNow();
+    watches.clear();
+  }
+
+  private void run() {
+
+    try {
+
+      while (true) {
+
+        WatchKey key = service.take();
+        Path dir = (Path) key.watchable();
+        key.pollEvents();
+
+        List<Watch> ws = watches.get(dir);
+
+        if (ws != null) {
+
+          ws.removeIf(w -> w.config.get() == null);
+          ws.forEach(Watch::changed);
+
+          if (ws.isEmpty()) {
+            watches.remove(dir);
+            key.cancel();
+            continue;
+          }
+        }
+
+        key.reset();
+      }
+
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // closed
+    }
+  }
+
+  private final class Watch {
+
+    private final WeakReference<ConfigClient.ConfigImpl> config;
+
+    private final AtomicReference<ScheduledFuture<?>> pending = new AtomicReference<>();
+
+    Watch(ConfigClient.ConfigImpl config) {
+      this.config = new WeakReference<>(config);
+    }
+
+    void changed() {
+
+      ScheduledFuture<?> next =
+          debouncer.schedule(this::reload, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+      ScheduledFuture<?> previous = pending.getAndSet(next);
+
+      if (previous != null) {
+        previous.cancel(false);
+      }
+    }
+
+    void reload() {
+
+      ConfigClient.ConfigImpl c = config.get();
+
+      if (c == null)
+        return;
+
+      try {
+        c.refresh();
+      } catch (Throwable e) {
+        logger.error("Error reloading configs", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+package io.configrd.client;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * SHA-256 digests of fetched configs used to detect sources which haven't changed.
+ */
+final class Fingerprint {
+
+  private Fingerprint() {}
+
+  static byte[] of(byte[] bytes) {
+    return digest().digest(bytes);
+  }
+
+  /**
+   * Digest of maps in iteration order. Equal maps iterated in a different order give different
+   * digests which only costs an unnecessary reload.
+   * 
+   * @param maps
+   * @return
+   */
+  static byte[] of(Map<?, ?>... maps) {
+
+    final MessageDigest digest = digest();
+
+    for (Map<?, ?> map : maps) {
+
+      if (map == null)
+        continue;
+
+      for (Map.Entry<?, ?> e : map.entrySet()) {
+        update(digest, e.getKey());
+        update(digest, e.getValue());
+      }
+
+      digest.update((byte) 1);
+    }
+
+    return digest.digest();
+  }
+
+  private static void update(MessageDigest digest, Object value) {
+
+    if (value != null) {
+      digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    digest.update((byte) 0);
+  }
+
+  static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+package io.configrd.client;
+
+import java.security.cert.CertificateException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import okhttp3.OkHttpClient;
+
+/**
+ * Process wide registry of http clients. All clients are derived from one root client and so share
+ * its connection pool and dispatcher, keeping connections alive and multiplexed across every config
+ * pointing at the same server. Clients are cached by trust settings and timeouts.
+ */
+final class HttpClients {
+
+  private static final Logger logger = LoggerFactory.getLogger(HttpClients.class);
+
+  private static final OkHttpClient root = new OkHttpClient();
+
+  private static final ConcurrentHashMap<Key, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+  private static final TrustManager[] trustAllCerts = new TrustManager[] {new X509TrustManager() {
+    @Override
+    public void checkClientTrusted(java.security.cert.X509Certificate[] chain, String authType)
+        throws CertificateException {}
+
+    @Override
+    public void checkServerTrusted(java.security.cert.X509Certificate[] chain, String authType)
+        throws CertificateException {}
+
+    @Override
+    public java.security.cert.X509Certificate[] getAcceptedIssuers() {
+      return new java.security.cert.X509Certificate[] {};
+    }
+  }};
+
+  private HttpClients() {}
+
+  /**
+   * @param trustCerts trust all certs and host names
+   * @param connectTimeout connect and write timeout in seconds
+   * @param readTimeout read timeout in seconds
+   * @return a shared client
+   */
+  static OkHttpClient get(boolean trustCerts, int connectTimeout, int readTimeout) {
+    return clients.computeIfAbsent(new Key(trustCerts, connectTimeout, readTimeout),
+        HttpClients::newClient);
+  }
+
+  private static OkHttpClient newClient(Key key) {
+
+    final OkHttpClient.Builder builder = root.newBuilder();
+
+    if (key.trustCerts) {
+      try {
+
+        final SSLContext sslContext = SSLContext.getInstance("TSL");
+        sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
+        final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
+
+        builder.sslSocketFactory(sslSocketFactory, (X509TrustManager) trustAllCerts[0]);
+        builder.hostnameVerifier((hostname, session) -> true);
+
+      } catch (Exception e) {
+        logger.error(e.getMessage());
+      }
+    }
+
+    builder.connectTimeout(key.connectTimeout, TimeUnit.SECONDS);
+    builder.writeTimeout(key.connectTimeout, TimeUnit.SECONDS);
+    builder.readTimeout(key.readTimeout, TimeUnit.SECONDS);
+
+    return builder.build();
+  }
+
+  private static final class Key {
+
+    private final boolean trustCerts;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    Key(boolean trustCerts, int connectTimeout, int readTimeout) {
+      this.trustCerts = trustCerts;
+      this.connectTimeout = connectTimeout;
+      this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (this == obj)
+        return true;
+
+      if (!(obj instanceof Key))
+        return false;
+
+      Key other = (Key) obj;
+      return trustCerts == other.trustCerts && connectTimeout == other.connectTimeout
+          && readTimeout == other.readTimeout;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(trustCerts, connectTimeout, readTimeout);
+    }
+  }
+
+}
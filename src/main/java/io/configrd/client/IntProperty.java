@@ -0,0 +1,20 @@
+package io.configrd.client;
+
+/**
+ * A handle on an int config parsed as by {@link ClientConfig#getInt(String, int)}.
+ */
+public final class IntProperty extends PropertyHandle<Integer> {
+
+  IntProperty(ConfigClient.ConfigImpl config, String key, int defaultValue) {
+    super(config, key, defaultValue);
+  }
+
+  public int get() {
+    return value();
+  }
+
+  @Override
+  Integer read(Snapshot snapshot, String key) {
+    return snapshot.getInt(key);
+  }
+}
@@ -0,0 +1,254 @@
+package io.configrd.client;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Parses JSON from a stream straight into flattened keys without buffering the document. Nested
+ * objects are joined with dots (a.b) and arrays indexed (a[0]). Scalars are kept as their text and
+ * nulls are skipped. Malformed documents, including bare words other than true, false and null, are
+ * rejected with an IOException.
+ */
+final class JsonStreamParser {
+
+  private static final Pattern NUMBER =
+      Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+  private final Reader reader;
+  private final char[] buffer = new char[8192];
+  private final StringBuilder text = new StringBuilder();
+  private int pos = 0;
+  private int limit = 0;
+
+  private JsonStreamParser(Reader reader) {
+    this.reader = reader;
+  }
+
+  static Map<String, Object> parse(Reader reader) throws IOException {
+    return parse(reader, new HashMap<>());
+  }
+
+  /**
+   * @param reader
+   * @param configs to add the flattened keys to
+   * @return configs
+   */
+  static <M extends Map<String, Object>> M parse(Reader reader, M configs) throws IOException {
+
+    JsonStreamParser parser = new JsonStreamParser(reader);
+
+    if (parser.skipWhitespace() < 0)
+      return configs;
+
+    parser.value("", configs);
+
+    if (parser.skipWhitespace() >= 0)
+      throw parser.error("Unexpected content after JSON document");
+
+    return configs;
+  }
+
+  private void value(String key, Map<String, Object> configs) throws IOException {
+
+    int c = skipWhitespace();
+
+    switch (c) {
+      case '{':
+        read();
+        object(key, configs);
+        break;
+      case '[':
+        read();
+        array(key, configs);
+        break;
+      case '"':
+        read();
+        put(configs, key, string());
+        break;
+      case -1:
+        throw error("Unexpected end of JSON");
+      default:
+        String literal = literal();
+        if (!"null".equals(literal))
+          put(configs, key, literal);
+    }
+  }
+
+  private void object(String prefix, Map<String, Object> configs) throws IOException {
+
+    if (skipWhitespace() == '}') {
+      read();
+      return;
+    }
+
+    while (true) {
+
+      expect('"');
+      String name = string();
+      expect(':');
+      value(prefix.isEmpty() ? name : prefix + "." + name, configs);
+
+      int c = skipWhitespace();
+      read();
+
+      if (c == '}')
+        return;
+      if (c != ',')
+        throw error("Expected ',' or '}'");
+    }
+  }
+
+  private void array(String prefix, Map<String, Object> configs) throws IOException {
+
+    if (skipWhitespace() == ']') {
+      read();
+      return;
+    }
+
+    for (int i = 0;; i++) {
+
+      value(prefix + "[" + i + "]", configs);
+
+      int c = skipWhitespace();
+      read();
+
+      if (c == ']')
+        return;
+      if (c != ',')
+        throw error("Expected ',' or ']'");
+    }
+  }
+
+  private void put(Map<String, Object> configs, String key, String value) throws IOException {
+
+    if (key.isEmpty())
+      throw error("Expected a JSON object or array");
+
+    configs.put(key, value);
+  }
+
+  private String string() throws IOException {
+
+    text.setLength(0);
+
+    while (true) {
+
+      int c = read();
+
+      if (c == '"')
+        return text.toString();
+
+      if (c == -1)
+        throw error("Unterminated string");
+
+      if (c == '\\') {
+
+        c = read();
+
+        switch (c) {
+          case 'b':
+            text.append('\b');
+            break;
+          case 'f':
+            text.append('\f');
+            break;
+          case 'n':
+            text.append('\n');
+            break;
+          case 'r':
+            text.append('\r');
+            break;
+          case 't':
+            text.append('\t');
+            break;
+          case 'u':
+            int u = 0;
+            for (int i = 0; i < 4; i++) {
+              int d = Character.digit(read(), 16);
+              if (d < 0)
+                throw error("Invalid unicode escape");
+              u = (u << 4) | d;
+            }
+            text.append((char) u);
+            break;
+          case '"':
+          case '\\':
+          case '/':
+            text.append((char) c);
+            break;
+          default:
+            throw error("Invalid escape");
+        }
+
+      } else {
+        text.append((char) c);
+      }
+    }
+  }
+
+  private String literal() throws IOException {
+
+    text.setLength(0);
+    int c;
+
+    while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && c != ':'
+        && !Character.isWhitespace(c)) {
+      text.append((char) read());
+    }
+
+    if (text.length() == 0)
+      throw error("Unexpected character '" + (char) c + "'");
+
+    String literal = text.toString();
+
+    if (!"true".equals(literal) && !"false".equals(literal) && !"null".equals(literal)
+        && !NUMBER.matcher(literal).matches())
+      throw error("Invalid value '" + literal + "'");
+
+    return literal;
+  }
+
+  private void expect(char expected) throws IOException {
+    if (skipWhitespace() != expected)
+      throw error("Expected '" + expected + "'");
+    read();
+  }
+
+  private int skipWhitespace() throws IOException {
+
+    int c;
+    while ((c = peek()) != -1 && Character.isWhitespace(c)) {
+      read();
+    }
+    return c;
+  }
+
+  private int peek() throws IOException {
+
+    if (pos == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      pos = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+
+    return buffer[pos];
+  }
+
+  private int read() throws IOException {
+    int c = peek();
+    if (c != -1)
+      pos++;
+    return c;
+  }
+
+  private IOException error(String message) {
+    return new IOException(message);
+  }
+
+}
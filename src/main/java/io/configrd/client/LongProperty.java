@@ -0,0 +1,20 @@
+package io.configrd.client;
+
+/**
+ * A handle on a long config parsed as by {@link ClientConfig#getLong(String, long)}.
+ */
+public final class LongProperty extends PropertyHandle<Long> {
+
+  LongProperty(ConfigClient.ConfigImpl config, String key, long defaultValue) {
+    super(config, key, defaultValue);
+  }
+
+  public long get() {
+    return value();
+  }
+
+  @Override
+  Long read(Snapshot snapshot, String key) {
+    return snapshot.getLong(key);
+  }
+}
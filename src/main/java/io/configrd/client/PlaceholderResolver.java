@@ -0,0 +1,290 @@
+package io.configrd.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills ${key} placeholders in config values. Values are compiled into templates once and the keys
+ * they reference are tracked, so a refresh only re-resolves values whose own text or any of whose
+ * inputs changed. Placeholders without a value are left as they are, as are values in a cycle.
+ */
+class PlaceholderResolver {
+
+  private static final Logger logger = LoggerFactory.getLogger(PlaceholderResolver.class);
+
+  private static final String OPEN = "${";
+  private static final String CLOSE = "}";
+
+  // Values as last seen, before placeholders were filled
+  private Map<String, Object> inputs = new HashMap<>();
+
+  // Only values holding at least one placeholder
+  private final Map<String, Template> templates = new HashMap<>();
+
+  // Key -> keys whose templates reference it
+  private final Map<String, Set<String>> dependents = new HashMap<>();
+
+  private Map<String, String> resolved = new HashMap<>();
+
+  /**
+   * @param values
+   * @return a copy of values with placeholders filled
+   */
+  synchronized Map<String, Object> resolve(Map<String, Object> values) {
+
+    final Set<String> changed = new HashSet<>();
+
+    for (Map.Entry<String, Object> e : values.entrySet()) {
+      if (!inputs.containsKey(e.getKey())
+          || !Objects.equals(e.getValue(), inputs.get(e.getKey()))) {
+        changed.add(e.getKey());
+        compile(e.getKey(), e.getValue());
+      }
+    }
+
+    for (String key : inputs.keySet()) {
+      if (!values.containsKey(key)) {
+        changed.add(key);
+        compile(key, null);
+      }
+    }
+
+    final Set<String> dirty = dependentsOf(changed);
+    final Map<String, String> resolved = new HashMap<>();
+
+    for (String key : templates.keySet()) {
+      if (!dirty.contains(key) && this.resolved.containsKey(key)) {
+        resolved.put(key, this.resolved.get(key));
+      }
+    }
+
+    // Keys in a cycle keep their own text, whichever of them is filled first
+    for (List<String> cycle : cycles(dirty)) {
+      logger.warn("Placeholder cycle between " + String.join(", ", cycle) + " left unresolved");
+      for (String key : cycle) {
+        resolved.put(key, templates.get(key).raw);
+      }
+    }
+
+    final Map<String, Object> filled = new LinkedHashMap<>(values);
+
+    for (String key : templates.keySet()) {
+      filled.put(key, fill(key, values, resolved));
+    }
+
+    this.inputs = new HashMap<>(values);
+    this.resolved = resolved;
+
+    return filled;
+  }
+
+  private void compile(String key, Object value) {
+
+    Template previous = templates.remove(key);
+
+    if (previous != null) {
+      for (String ref : previous.refs) {
+        Set<String> deps = dependents.get(ref);
+        deps.remove(key);
+        if (deps.isEmpty())
+          dependents.remove(ref);
+      }
+    }
+
+    if (value instanceof String && ((String) value).contains(OPEN)) {
+
+      Template t = Template.compile((String) value);
+
+      if (t.refs.length > 0) {
+        templates.put(key, t);
+        for (String ref : t.refs) {
+          dependents.computeIfAbsent(ref, k -> new HashSet<>()).add(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param changed
+   * @return changed keys plus every key transitively referencing one of them
+   */
+  private Set<String> dependentsOf(Set<String> changed) {
+
+    final Set<String> dirty = new HashSet<>(changed);
+    final Deque<String> pending = new ArrayDeque<>(changed);
+
+    while (!pending.isEmpty()) {
+      Set<String> deps = dependents.get(pending.pop());
+      if (deps != null) {
+        for (String d : deps) {
+          if (dirty.add(d))
+            pending.push(d);
+        }
+      }
+    }
+
+    return dirty;
+  }
+
+  /**
+   * Cycles are found among dirty keys only, a cycle through a key that changed is made up of keys
+   * that all depend on it so are all dirty too.
+   *
+   * @param dirty
+   * @return the keys of each cycle between templates, sorted
+   */
+  private List<List<String>> cycles(Set<String> dirty) {
+
+    final List<List<String>> cycles = new ArrayList<>();
+    final Map<String, int[]> index = new HashMap<>();
+    final Deque<String> stack = new ArrayDeque<>();
+
+    for (String key : dirty) {
+      if (templates.containsKey(key) && !index.containsKey(key))
+        connect(key, dirty, index, stack, cycles);
+    }
+
+    return cycles;
+  }
+
+  /**
+   * Tarjan's strongly connected components, index[key] holding the visit order, the lowest order
+   * reachable and 1 while the key is on the stack.
+   */
+  private void connect(String key, Set<String> dirty, Map<String, int[]> index,
+      Deque<String> stack, List<List<String>> cycles) {
+
+    final int[] k = {index.size(), index.size(), 1};
+    index.put(key, k);
+    stack.push(key);
+
+    boolean self = false;
+
+    for (String ref : templates.get(key).refs) {
+
+      if (!dirty.contains(ref) || !templates.containsKey(ref))
+        continue;
+
+      self |= ref.equals(key);
+      int[] r = index.get(ref);
+
+      if (r == null) {
+        connect(ref, dirty, index, stack, cycles);
+        k[1] = Math.min(k[1], index.get(ref)[1]);
+      } else if (r[2] == 1) {
+        k[1] = Math.min(k[1], r[0]);
+      }
+    }
+
+    if (k[1] != k[0])
+      return;
+
+    final List<String> component = new ArrayList<>();
+    String member;
+
+    do {
+      member = stack.pop();
+      component.add(member);
+      index.get(member)[2] = 0;
+    } while (!member.equals(key));
+
+    if (component.size() > 1 || self) {
+      Collections.sort(component);
+      cycles.add(component);
+    }
+  }
+
+  private String fill(String key, Map<String, Object> values, Map<String, String> resolved) {
+
+    String value = resolved.get(key);
+
+    if (value != null)
+      return value;
+
+    Template t = templates.get(key);
+    final StringBuilder b = new StringBuilder(t.raw.length());
+
+    for (int i = 0; i < t.refs.length; i++) {
+
+      b.append(t.literals[i]);
+      String ref = t.refs[i];
+
+      if (templates.containsKey(ref)) {
+        b.append(fill(ref, values, resolved));
+      } else {
+        Object v = values.get(ref);
+        b.append(v == null ? OPEN + ref + CLOSE : String.valueOf(v));
+      }
+    }
+
+    b.append(t.literals[t.refs.length]);
+
+    value = b.toString();
+    resolved.put(key, value);
+    return value;
+  }
+
+  /**
+   * A value split into literal text and the keys referenced between them, so literals[i] precedes
+   * refs[i] and the last literal trails the final placeholder.
+   */
+  static class Template {
+
+    final String raw;
+    final String[] literals;
+    final String[] refs;
+
+    private Template(String raw, String[] literals, String[] refs) {
+      this.raw = raw;
+      this.literals = literals;
+      this.refs = refs;
+    }
+
+    static Template compile(String value) {
+
+      List<String> literals = new ArrayList<>();
+      List<String> refs = new ArrayList<>();
+
+      int from = 0;
+      int open;
+      StringBuilder literal = new StringBuilder();
+
+      while ((open = value.indexOf(OPEN, from)) >= 0) {
+
+        int close = value.indexOf(CLOSE, open + OPEN.length());
+
+        if (close < 0)
+          break;
+
+        String ref = value.substring(open + OPEN.length(), close).trim();
+        literal.append(value, from, open);
+
+        if (ref.isEmpty()) {
+          literal.append(value, open, close + 1);
+        } else {
+          literals.add(literal.toString());
+          refs.add(ref);
+          literal.setLength(0);
+        }
+
+        from = close + 1;
+      }
+
+      literal.append(value.substring(from));
+      literals.add(literal.toString());
+
+      return new Template(value, literals.toArray(new String[0]), refs.toArray(new String[0]));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package io.configrd.client;
+
+/**
+ * A handle on a config converted to a type as by {@link ClientConfig#getProperty(String, Class)}.
+ */
+public final class Property<T> extends PropertyHandle<T> {
+
+  private final Class<T> clazz;
+
+  Property(ConfigClient.ConfigImpl config, String key, Class<T> clazz, T defaultValue) {
+    super(config, key, defaultValue);
+    this.clazz = clazz;
+  }
+
+  /**
+   * @return the current value or the default if the key has no value
+   */
+  public T get() {
+    return value();
+  }
+
+  @Override
+  T read(Snapshot snapshot, String key) {
+    return snapshot.getProperty(key, clazz);
+  }
+}
@@ -0,0 +1,59 @@
+package io.configrd.client;
+
+/**
+ * Base of the property handles. A key's value is read from a loaded snapshot once and kept until
+ * the next snapshot is published, so reading it while configs are unchanged costs two volatile
+ * reads and does not allocate.
+ *
+ * A handle holds on to its config, so a config only referenced through its handles is still
+ * refreshed and its handles keep seeing updates.
+ */
+abstract class PropertyHandle<T> {
+
+  private final ConfigClient.ConfigImpl config;
+  private final String key;
+  private final T defaultValue;
+
+  private volatile Resolved<T> resolved;
+
+  PropertyHandle(ConfigClient.ConfigImpl config, String key, T defaultValue) {
+    this.config = config;
+    this.key = key;
+    this.defaultValue = defaultValue;
+  }
+
+  /**
+   * @param snapshot
+   * @param key
+   * @return the key's value in the snapshot or null if it has none
+   */
+  abstract T read(Snapshot snapshot, String key);
+
+  final T value() {
+
+    final Snapshot s = config.snapshot();
+    Resolved<T> r = resolved;
+
+    if (r == null || r.snapshot != s) {
+      T value = read(s, key);
+      resolved = r = new Resolved<>(s, value == null ? defaultValue : value);
+    }
+
+    return r.value;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  private static final class Resolved<T> {
+
+    private final Snapshot snapshot;
+    private final T value;
+
+    private Resolved(Snapshot snapshot, T value) {
+      this.snapshot = snapshot;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package io.configrd.client;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
+
+/**
+ * Keeps a Server-Sent Events subscription open with a configrd server and refreshes a config on
+ * every event. Events are only notifications, configs are still fetched with If-None-Match so an
+ * event racing the server's own update is harmless.
+ *
+ * While disconnected configs are polled instead and the subscription is retried with exponential
+ * backoff. A server answering with anything but an event stream doesn't stream events at all, it's
+ * polled from then on without subscribing again. Configs are also refreshed on every (re)connect to
+ * catch up on changes missed while disconnected.
+ */
+final class PushSubscriber {
+
+  private static final Logger logger = LoggerFactory.getLogger(PushSubscriber.class);
+
+  private static final String EVENT_STREAM = "text/event-stream";
+
+  private static final AtomicInteger threads = new AtomicInteger();
+
+  private final HttpUrl url;
+  private final OkHttpClient client;
+  private final WeakReference<ConfigClient.ConfigImpl> config;
+  private final long pollMillis;
+  private final RetryPolicy reconnect;
+
+  private final Thread thread;
+  private volatile Call call;
+  private volatile boolean connected = false;
+  private volatile boolean closed = false;
+
+  /**
+   * @param url
+   * @param client
+   * @param config
+   * @param pollMillis how often to poll while not subscribed
+   * @param reconnectMillis delay before the first resubscribe, doubled up to a minute after every
+   *        failed attempt
+   */
+  PushSubscriber(HttpUrl url, OkHttpClient client, ConfigClient.ConfigImpl config,
+      long pollMillis, long reconnectMillis) {
+    this.url = url;
+    // Events may be far apart, the stream must not time out between them
+    this.client = client.newBuilder().readTimeout(0, TimeUnit.MILLISECONDS).build();
+    this.config = new WeakReference<>(config);
+    this.pollMillis = pollMillis;
+    this.reconnect = new RetryPolicy(Integer.MAX_VALUE, reconnectMillis);
+
+    this.thread = new Thread(this::run, "configrd-push-" + threads.incrementAndGet());
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  void close() {
+
+    closed = true;
+    thread.interrupt();
+
+    Call c = call;
+    if (c != null)
+      c.cancel();
+  }
+
+  boolean isConnected() {
+    return connected;
+  }
+
+  private boolean open() {
+    ConfigClient.ConfigImpl c = config.get();
+    return !closed && c != null && !c.isClosed();
+  }
+
+  private void run() {
+
+    int failures = 0;
+    boolean streams = true;
+
+    while (open()) {
+
+      try {
+
+        streams = subscribe();
+
+      } catch (IOException | RuntimeException e) {
+        if (open())
+          logger.debug("Config event stream from " + url + " disconnected: " + e.getMessage());
+      } finally {
+        // However the stream ended, having been connected backs off from the start again
+        if (connected)
+          failures = 0;
+        connected = false;
+      }
+
+      if (!open())
+        break;
+
+      if (!streams)
+        logger.info("Server at " + url + " doesn't stream config events, polling instead");
+
+      // Poll until it's time to try subscribing again
+      final long until = streams ? System.currentTimeMillis() + reconnect.backoff(++failures)
+          : Long.MAX_VALUE;
+
+      try {
+
+        long now;
+        while (open() && (now = System.currentTimeMillis()) < until) {
+          Thread.sleep(Math.min(pollMillis, until - now));
+          refresh();
+        }
+
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+
+    logger.debug("Stopped listening for config events from " + url);
+  }
+
+  /**
+   * @return false if the server answered without an event stream
+   * @throws IOException if the subscription failed or the stream was cut
+   */
+  private boolean subscribe() throws IOException {
+
+    Request request = new Request.Builder().url(url).addHeader("Accept", EVENT_STREAM)
+        .addHeader("Cache-Control", "no-cache").get().build();
+
+    Call c = client.newCall(request);
+    this.call = c;
+
+    if (closed) {
+      c.cancel();
+      return false;
+    }
+
+    try (Response response = c.execute()) {
+
+      String type = response.header("Content-Type", "");
+
+      if (!response.isSuccessful())
+        throw new IOException("Server returned " + response.code());
+
+      if (!type.startsWith(EVENT_STREAM))
+        return false;
+
+      connected = true;
+      logger.info("Listening for config events from " + url);
+
+      // Catch up on anything changed while not subscribed
+      refresh();
+
+      BufferedSource source = response.body().source();
+      boolean pending = false;
+      String line;
+
+      while ((line = source.readUtf8Line()) != null && open()) {
+
+        if (line.isEmpty()) {
+          if (pending)
+            refresh();
+          pending = false;
+        } else if (!line.startsWith(":")) {
+          // Any field but a comment makes up an event, comments are keep-alives
+          pending = true;
+        }
+      }
+
+      return true;
+
+    } finally {
+      this.call = null;
+    }
+  }
+
+  private void refresh() {
+
+    ConfigClient.ConfigImpl c = config.get();
+
+    if (c != null) {
+      try {
+        c.refresh();
+      } catch (RuntimeException e) {
+        logger.error("Error refreshing configs", e);
+      }
+    }
+  }
+}
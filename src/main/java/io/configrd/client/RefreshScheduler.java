@@ -0,0 +1,264 @@
+package io.configrd.client;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules periodic config refreshes. A single scheduler thread only triggers refreshes, the
+ * fetches themselves run on a worker pool (virtual threads where the JVM supports them) so a slow
+ * source never delays any other. Configs sharing a source and period are coalesced into one
+ * fetch per period. Every period is randomly lengthened or shortened by up to a tenth so sources,
+ * and clients started together, drift apart rather than poll in lockstep.
+ * 
+ * Configs are held weakly, so unlike the Timer this replaced scheduling a config doesn't keep it
+ * alive. A config the application no longer references, directly or through its property
+ * handles, is dropped at its group's next refresh without being closed. A group left without
+ * members stops.
+ */
+final class RefreshScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(RefreshScheduler.class);
+
+  // Max share of the period each refresh is moved by
+  private static final double JITTER = 0.1;
+
+  private final AtomicInteger threads = new AtomicInteger();
+
+  private final ScheduledExecutorService scheduler;
+
+  private final ExecutorService workers;
+
+  private final Map<Key, Group> groups = new ConcurrentHashMap<>();
+
+  RefreshScheduler() {
+
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "configrd-refresh-scheduler");
+      t.setDaemon(true);
+      return t;
+    });
+    scheduler.setRemoveOnCancelPolicy(true);
+
+    this.scheduler = scheduler;
+    this.workers = newWorkers();
+  }
+
+  private ExecutorService newWorkers() {
+
+    try {
+
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+
+    } catch (ReflectiveOperationException e) {
+
+      return Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "configrd-refresh-" + threads.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+  /**
+   * Refresh a config periodically.
+   * 
+   * @param source identifies the config's source, configs with equal sources are refreshed from a
+   *        single fetch
+   * @param config
+   * @param periodMillis
+   */
+  void schedule(Object source, ConfigClient.ConfigImpl config, long periodMillis) {
+
+    Key key = new Key(source, periodMillis);
+
+    groups.compute(key, (k, group) -> {
+
+      if (group == null) {
+        group = new Group(k);
+        group.next();
+      }
+
+      group.members.add(new WeakReference<>(config));
+      return group;
+    });
+  }
+
+  /**
+   * @param periodMillis
+   * @return the period moved by a random share of up to {@link #JITTER} either way
+   */
+  static long delay(long periodMillis) {
+    return periodMillis
+        + (long) ((ThreadLocalRandom.current().nextDouble() * 2 - 1) * JITTER * periodMillis);
+  }
+
+  /**
+   * @return number of sources with configs scheduled
+   */
+  int size() {
+    return groups.size();
+  }
+
+  /**
+   * Stop all refreshes and release the scheduler and worker threads.
+   */
+  void shutdown() {
+    groups.clear();
+    scheduler.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  private final class Group {
+
+    private final Key key;
+    private final CopyOnWriteArrayList<WeakReference<ConfigClient.ConfigImpl>> members =
+        new CopyOnWriteArrayList<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledFuture<?> future;
+    private boolean stopped = false;
+
+    Group(Key key) {
+      this.key = key;
+    }
+
+    void trigger() {
+
+      try {
+
+        // Skip this period if the last fetch is still running
+        if (!running.compareAndSet(false, true))
+          return;
+
+        try {
+          workers.execute(this::refresh);
+        } catch (Exception e) {
+          running.set(false);
+          logger.error("Unable to refresh configs from " + key.source, e);
+        }
+
+      } finally {
+        next();
+      }
+    }
+
+    /**
+     * Scheduled one period at a time so each period is jittered anew.
+     */
+    synchronized void next() {
+
+      if (stopped)
+        return;
+
+      try {
+        future = scheduler.schedule(this::trigger, delay(key.period), TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // Shut down
+        stopped = true;
+      }
+    }
+
+    synchronized void stop() {
+
+      stopped = true;
+
+      if (future != null)
+        future.cancel(false);
+    }
+
+    void refresh() {
+
+      try {
+
+        ConfigClient.ConfigImpl leader = null;
+
+        for (Iterator<WeakReference<ConfigClient.ConfigImpl>> i = members.iterator(); i
+            .hasNext();) {
+          WeakReference<ConfigClient.ConfigImpl> ref = i.next();
+          if (ref.get() == null || ref.get().isClosed()) {
+            members.remove(ref);
+          } else if (leader == null) {
+            leader = ref.get();
+          }
+        }
+
+        if (leader == null) {
+          cancel();
+          return;
+        }
+
+        Map<String, Object> p = leader.fetch();
+
+        for (WeakReference<ConfigClient.ConfigImpl> ref : members) {
+          ConfigClient.ConfigImpl c = ref.get();
+          if (c != null && !c.isClosed()) {
+            c.apply(p);
+          }
+        }
+
+      } catch (Throwable e) {
+        logger.error("Error refreshing configs", e);
+      } finally {
+        running.set(false);
+      }
+    }
+
+    void cancel() {
+
+      groups.computeIfPresent(key, (k, group) -> {
+
+        if (group != this || !members.isEmpty())
+          return group;
+
+        stop();
+        return null;
+      });
+    }
+  }
+
+  private static final class Key {
+
+    private final Object source;
+    private final long period;
+
+    Key(Object source, long period) {
+      this.source = source;
+      this.period = period;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (this == obj)
+        return true;
+
+      if (!(obj instanceof Key))
+        return false;
+
+      Key other = (Key) obj;
+      return period == other.period && Objects.equals(source, other.source);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(source, period);
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import io.configrd.core.processor.ProcessorSelector;
+import io.configrd.core.processor.ProcessorSelector.Type;
+
+/**
+ * Where a repo's configs live according to a configrd config file, i.e. repos.yaml, parsed into
+ * flattened keys by the same core processors as config files.
+ */
+final class ReposFile {
+
+  private static final String REPOS = "service.repos.";
+
+  private final Map<String, Object> values;
+
+  private ReposFile(Map<String, Object> values) {
+    this.values = values;
+  }
+
+  /**
+   * @param file name or uri of the config file, its extension selects the format
+   * @param bytes
+   * @return
+   */
+  static ReposFile read(String file, byte[] bytes) {
+    return new ReposFile(ProcessorSelector.process(typeOf(file), bytes));
+  }
+
+  /**
+   * @param repo
+   * @return the repo's root uri
+   */
+  Optional<String> getUri(String repo) {
+    return Optional.ofNullable(values.get(REPOS + repo + ".uri")).map(String::valueOf);
+  }
+
+  /**
+   * @param repo
+   * @return the repo's named paths by name
+   */
+  Map<String, String> getNamed(String repo) {
+
+    final String prefix = REPOS + repo + ".named.";
+    Map<String, String> named = new HashMap<>();
+
+    values.forEach((k, v) -> {
+      if (k.startsWith(prefix) && v != null)
+        named.put(k.substring(prefix.length()), String.valueOf(v));
+    });
+
+    return named;
+  }
+
+  private static Type typeOf(String file) {
+
+    String name = file.toLowerCase(Locale.ROOT);
+
+    if (name.endsWith(".json"))
+      return Type.JSON;
+
+    if (name.endsWith(".properties"))
+      return Type.PROPERTIES;
+
+    return Type.YAML;
+  }
+}
@@ -0,0 +1,104 @@
+package io.configrd.client;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retries failed fetches and guards the source with a circuit breaker. Illegal arguments, such as
+ * an unknown host, are configuration errors and aren't retried.
+ */
+class ResilientFetcher implements ConfigFetcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(ResilientFetcher.class);
+
+  private final String name;
+  private final ConfigFetcher fetcher;
+  private final RetryPolicy retry;
+  private final CircuitBreaker breaker;
+
+  /**
+   * @param name
+   * @param fetcher
+   * @param retry
+   * @param breaker or null to always fetch
+   */
+  ResilientFetcher(String name, ConfigFetcher fetcher, RetryPolicy retry,
+      CircuitBreaker breaker) {
+    this.name = name;
+    this.fetcher = fetcher;
+    this.retry = retry;
+    this.breaker = breaker;
+  }
+
+  /**
+   * @return the fetcher unchanged if neither retries nor a circuit breaker are set
+   */
+  static ConfigFetcher wrap(String name, ConfigFetcher fetcher, RetryPolicy retry,
+      CircuitBreaker breaker) {
+
+    if (retry.getAttempts() == 1 && breaker == null)
+      return fetcher;
+
+    return new ResilientFetcher(name, fetcher, retry, breaker);
+  }
+
+  @Override
+  public Map<String, Object> fetch() {
+
+    if (breaker != null && !breaker.allow()) {
+      throw new IllegalStateException(
+          "Circuit open for " + name + ", serving last loaded configs");
+    }
+
+    int attempt = 1;
+    boolean fetched = false;
+
+    try {
+
+      while (true) {
+
+        try {
+
+          Map<String, Object> p = fetcher.fetch();
+          fetched = true;
+          return p;
+
+        } catch (IllegalArgumentException e) {
+          throw e;
+        } catch (RuntimeException e) {
+
+          if (attempt >= retry.getAttempts())
+            throw e;
+
+          long backoff = retry.backoff(attempt++);
+          logger.warn("Fetching " + name + " failed, retrying in " + backoff + "ms: "
+              + e.getMessage());
+
+          try {
+            Thread.sleep(backoff);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw e;
+          }
+        }
+      }
+
+    } finally {
+
+      // Anything thrown, errors included, counts as a failure so a trial fetch reopens the circuit
+      if (breaker != null) {
+        if (fetched) {
+          breaker.success();
+        } else {
+          breaker.failure();
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    fetcher.close();
+  }
+}
@@ -0,0 +1,66 @@
+package io.configrd.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter between fetch attempts. Delays double from the initial backoff up
+ * to a minute and each is randomized to between half and all of it, so clients failing together
+ * don't retry together.
+ */
+class RetryPolicy {
+
+  static final RetryPolicy NONE = new RetryPolicy(1, 0);
+
+  private static final long MAX_BACKOFF = 60_000;
+
+  private final int attempts;
+  private final long backoffMillis;
+
+  /**
+   * @param attempts total attempts per fetch, including the first
+   * @param backoffMillis delay before the first retry
+   */
+  RetryPolicy(int attempts, long backoffMillis) {
+
+    if (attempts < 1)
+      throw new IllegalArgumentException("At least one attempt is required");
+
+    this.attempts = attempts;
+    this.backoffMillis = Math.max(0, backoffMillis);
+  }
+
+  int getAttempts() {
+    return attempts;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (!(obj instanceof RetryPolicy))
+      return false;
+
+    RetryPolicy other = (RetryPolicy) obj;
+    return attempts == other.attempts && backoffMillis == other.backoffMillis;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * attempts + Long.hashCode(backoffMillis);
+  }
+
+  /**
+   * @param retry 1 for the first retry
+   * @return millis to wait before the retry
+   */
+  long backoff(int retry) {
+
+    long delay = backoffMillis;
+
+    for (int i = 1; i < retry && delay < MAX_BACKOFF; i++)
+      delay <<= 1;
+
+    delay = Math.min(delay, MAX_BACKOFF);
+
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+}
@@ -0,0 +1,25 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+
+/**
+ * Configs fetched from a configrd server along with the ETag they were served with, so a later
+ * patch can be matched to the configs it was made against by ETag alone.
+ */
+class ServerConfigs extends HashMap<String, Object> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String etag;
+
+  /**
+   * @param etag or null if the server didn't send one
+   */
+  ServerConfigs(String etag) {
+    this.etag = etag;
+  }
+
+  String getETag() {
+    return etag;
+  }
+}
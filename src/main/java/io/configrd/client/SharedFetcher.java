@@ -0,0 +1,222 @@
+package io.configrd.client;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one fetcher between every config loading the same source, path and named paths. At most
+ * one fetch per source is in flight, configs asking while it runs wait for it, and the last result
+ * is kept so each config is handed it once.
+ *
+ * Configs hold a counted share of the source, released when closed or garbage collected. The
+ * source is dropped with its last share.
+ */
+final class SharedFetcher {
+
+  private static final Map<Object, SharedFetcher> sources = new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<Handle> collected = new ReferenceQueue<>();
+
+  private final Object key;
+  private final ConfigFetcher fetcher;
+
+  // Keeps shares reachable so they're queued once their handle is collected
+  private final Set<Share> shares = ConcurrentHashMap.newKeySet();
+
+  private int refs = 0;
+  private CompletableFuture<Void> inflight;
+  private Map<String, Object> last;
+  private boolean lastFromCache = false;
+  private long generation = 0;
+
+  private SharedFetcher(Object key, ConfigFetcher fetcher) {
+    this.key = key;
+    this.fetcher = fetcher;
+  }
+
+  /**
+   * @param key identifying the source, path, named paths and the settings fetches are made with
+   * @param factory creates the fetcher if the source isn't shared yet
+   * @return a new share of the source
+   */
+  static Handle acquire(Object key, Supplier<ConfigFetcher> factory) {
+
+    expunge();
+
+    while (true) {
+
+      SharedFetcher shared =
+          sources.computeIfAbsent(key, k -> new SharedFetcher(k, factory.get()));
+
+      synchronized (shared) {
+        // Lost a race with the last share being released
+        if (shared.refs < 0)
+          continue;
+
+        shared.refs++;
+        return new Handle(shared);
+      }
+    }
+  }
+
+  static int size() {
+    expunge();
+    return sources.size();
+  }
+
+  private static void expunge() {
+
+    Reference<? extends Handle> ref;
+
+    while ((ref = collected.poll()) != null) {
+      ((Share) ref).release();
+    }
+  }
+
+  private void release() {
+
+    synchronized (this) {
+      if (--refs > 0)
+        return;
+
+      refs = -1;
+    }
+
+    sources.remove(key, this);
+  }
+
+  private Map<String, Object> fetch(Handle handle) {
+
+    final CompletableFuture<Void> f;
+    final boolean leader;
+
+    synchronized (this) {
+      leader = inflight == null;
+      if (leader)
+        inflight = new CompletableFuture<>();
+      f = inflight;
+    }
+
+    try {
+
+      if (leader) {
+        lead(f);
+      } else {
+        f.join();
+      }
+
+    } catch (RuntimeException e) {
+
+      RuntimeException cause = e instanceof CompletionException
+          && e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+
+      synchronized (this) {
+        // Configs that haven't been handed the last result yet start from it
+        if (last == null || handle.seen == generation)
+          throw cause;
+      }
+    }
+
+    synchronized (this) {
+
+      if (handle.seen == generation)
+        return null;
+
+      handle.seen = generation;
+      handle.fromCache = lastFromCache;
+      return last;
+    }
+  }
+
+  private void lead(CompletableFuture<Void> f) {
+
+    try {
+
+      Map<String, Object> p = fetcher.fetch();
+
+      synchronized (this) {
+        if (p != null) {
+          last = p;
+          lastFromCache = fetcher.isFromCache();
+          generation++;
+        }
+        inflight = null;
+      }
+
+      f.complete(null);
+
+    } catch (RuntimeException e) {
+
+      synchronized (this) {
+        inflight = null;
+      }
+
+      f.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * A config's share of a source. Results are shared and must not be modified.
+   */
+  static final class Handle implements ConfigFetcher {
+
+    private final SharedFetcher shared;
+    private final Share share;
+
+    // Generation of the last result handed to this config
+    private long seen = -1;
+
+    private volatile boolean fromCache = false;
+
+    private Handle(SharedFetcher shared) {
+      this.shared = shared;
+      this.share = new Share(this, shared);
+      shared.shares.add(share);
+    }
+
+    @Override
+    public Map<String, Object> fetch() {
+      return shared.fetch(this);
+    }
+
+    /**
+     * @return true if the last result handed to this config was served from a cache
+     */
+    @Override
+    public boolean isFromCache() {
+      return fromCache;
+    }
+
+    @Override
+    public void close() {
+      share.release();
+    }
+  }
+
+  private static final class Share extends WeakReference<Handle> {
+
+    private final SharedFetcher shared;
+    private boolean released = false;
+
+    private Share(Handle handle, SharedFetcher shared) {
+      super(handle, collected);
+      this.shared = shared;
+    }
+
+    synchronized void release() {
+      if (!released) {
+        released = true;
+        shared.shares.remove(this);
+        shared.release();
+      }
+    }
+  }
+}
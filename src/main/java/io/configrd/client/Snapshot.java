@@ -0,0 +1,495 @@
+package io.configrd.client;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.beanutils.ConvertUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.configrd.core.util.StringUtils;
+
+/**
+ * A single, immutable generation of loaded configs. A new snapshot is published on every refresh
+ * so readers never lock or copy and values converted from it can be cached for the lifetime of the
+ * snapshot and dropped along with it.
+ *
+ * Entries are indexed by position in key order.
+ */
+abstract class Snapshot {
+
+  private static final Logger logger = LoggerFactory.getLogger(Snapshot.class);
+
+  static final Snapshot EMPTY = of(new Properties());
+
+  // Marks keys whose value is blank so they aren't re-checked on every read
+  private static final Object NONE = new Object();
+
+  private final Map<String, String> view = new View();
+
+  // Keyed by the class converted to with ConvertUtils or the strict parser
+  private final ConcurrentHashMap<Object, ConcurrentHashMap<String, Object>> converted =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<String, Map<String, String>> subsets = new ConcurrentHashMap<>();
+
+  /**
+   * @param props
+   * @return a snapshot holding keys and values as strings for the fastest reads
+   */
+  static Snapshot of(Map<?, ?> props) {
+    return ArraySnapshot.of(props);
+  }
+
+  /**
+   * @param props
+   * @return a snapshot encoded in a single off-heap buffer for very large configs
+   */
+  static Snapshot compact(Map<?, ?> props) {
+    return BinarySnapshot.of(props);
+  }
+
+  abstract int size();
+
+  abstract String keyAt(int i);
+
+  abstract String valueAt(int i);
+
+  /**
+   * @param key
+   * @return position of the key or -1 if not found
+   */
+  abstract int indexOf(Object key);
+
+  /**
+   * @return a new, mutable copy of this snapshot
+   */
+  Properties getProperties() {
+
+    Properties props = new Properties();
+    for (int i = 0; i < size(); i++) {
+      String value = valueAt(i);
+      if (value != null)
+        props.put(keyAt(i), value);
+    }
+    return props;
+  }
+
+  String getProperty(String key) {
+    int i = indexOf(key);
+    return i < 0 ? null : valueAt(i);
+  }
+
+  /**
+   * Converts the value of a key to the given type once per snapshot. Converted values are shared
+   * between callers, so mutable types such as arrays must not be modified.
+   *
+   * Values go through ConvertUtils, so a malformed primitive reads as its default, except
+   * {@link Duration} which ConvertUtils doesn't know and is parsed as by {@link #getDuration}.
+   *
+   * @param key
+   * @param clazz
+   * @return the converted value or null if the key has no value
+   */
+  @SuppressWarnings("unchecked")
+  <T> T getProperty(String key, Class<T> clazz) {
+
+    if (clazz == String.class) {
+      String value = getProperty(key);
+      return StringUtils.hasText(value) ? (T) value : null;
+    }
+
+    if (clazz == Duration.class)
+      return (T) getDuration(key);
+
+    return (T) converted(key, clazz);
+  }
+
+  /**
+   * The strict getters trim the value and parse it exactly, a malformed value is logged once and
+   * read as missing rather than as a default.
+   *
+   * @param key
+   * @return the parsed value or null if the key has no valid value
+   */
+  Boolean getBoolean(String key) {
+    return (Boolean) converted(key, Strict.BOOLEAN);
+  }
+
+  Duration getDuration(String key) {
+    return (Duration) converted(key, Strict.DURATION);
+  }
+
+  Integer getInt(String key) {
+    return (Integer) converted(key, Strict.INT);
+  }
+
+  Long getLong(String key) {
+    return (Long) converted(key, Strict.LONG);
+  }
+
+  private Object converted(String key, Object type) {
+
+    ConcurrentHashMap<String, Object> converted = this.converted.get(type);
+
+    if (converted == null) {
+      converted = this.converted.computeIfAbsent(type, c -> new ConcurrentHashMap<>());
+    }
+
+    Object val = converted.get(key);
+
+    if (val == null) {
+
+      String value = getProperty(key);
+
+      if (StringUtils.hasText(value)) {
+        val = type instanceof Strict ? ((Strict) type).parse(key, value.trim())
+            : ConvertUtils.convert(value, (Class<?>) type);
+      }
+
+      if (val == null) {
+        val = NONE;
+      }
+
+      converted.putIfAbsent(key, val);
+    }
+
+    return val == NONE ? null : val;
+  }
+
+  private enum Strict {
+
+    BOOLEAN {
+      @Override
+      Object parse(String value) {
+        return parseBoolean(value);
+      }
+    },
+    DURATION {
+      @Override
+      Object parse(String value) {
+        return parseDuration(value);
+      }
+    },
+    INT {
+      @Override
+      Object parse(String value) {
+        return Integer.valueOf(value);
+      }
+    },
+    LONG {
+      @Override
+      Object parse(String value) {
+        return Long.valueOf(value);
+      }
+    };
+
+    abstract Object parse(String value);
+
+    Object parse(String key, String value) {
+
+      try {
+        return parse(value);
+      } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+        logger.warn("Value of " + key + " is not a valid " + name().toLowerCase(Locale.ROOT));
+        return null;
+      }
+    }
+  }
+
+  private static Boolean parseBoolean(String value) {
+
+    switch (value.toLowerCase(Locale.ROOT)) {
+      case "true":
+      case "yes":
+      case "on":
+      case "1":
+        return Boolean.TRUE;
+      case "false":
+      case "no":
+      case "off":
+      case "0":
+        return Boolean.FALSE;
+      default:
+        throw new IllegalArgumentException(value);
+    }
+  }
+
+  /**
+   * @param value ISO-8601 such as "PT30S" or an amount with unit ns, us, ms, s, m, h or d such as
+   *        "500ms", a bare amount is in milliseconds
+   * @return
+   * @throws ArithmeticException if the amount overflows a duration
+   */
+  static Duration parseDuration(String value) {
+
+    if (value.charAt(0) == 'P' || value.charAt(0) == 'p' || value.charAt(0) == '-')
+      return Duration.parse(value);
+
+    int i = 0;
+    while (i < value.length() && Character.isDigit(value.charAt(i)))
+      i++;
+
+    final long amount = Long.parseLong(value.substring(0, i));
+
+    switch (value.substring(i).trim().toLowerCase(Locale.ROOT)) {
+      case "ns":
+        return Duration.ofNanos(amount);
+      case "us":
+        return Duration.of(amount, ChronoUnit.MICROS);
+      case "":
+      case "ms":
+        return Duration.ofMillis(amount);
+      case "s":
+        return Duration.ofSeconds(amount);
+      case "m":
+        return Duration.ofMinutes(amount);
+      case "h":
+        return Duration.ofHours(amount);
+      case "d":
+        return Duration.ofDays(amount);
+      default:
+        throw new IllegalArgumentException(value);
+    }
+  }
+
+  /**
+   * @return a read-only map backed directly by this snapshot
+   */
+  Map<String, String> asMap() {
+    return view;
+  }
+
+  /**
+   * Keys under a prefix are contiguous in key order, so the view is just a range of positions found
+   * by binary search once per snapshot and prefix.
+   *
+   * @param prefix i.e. "db.primary"
+   * @return a read-only map of keys under the prefix, with the prefix stripped
+   */
+  Map<String, String> subset(String prefix) {
+
+    final String p = asPrefix(prefix);
+
+    if (p.isEmpty())
+      return view;
+
+    Map<String, String> subset = subsets.get(p);
+
+    if (subset == null) {
+      subset = subsets.computeIfAbsent(p, k -> {
+        // Keys starting with the prefix sort before the prefix with its last char incremented
+        String end = k.substring(0, k.length() - 1) + (char) (k.charAt(k.length() - 1) + 1);
+        return new Subset(k, lowerBound(k), lowerBound(end));
+      });
+    }
+
+    return subset;
+  }
+
+  /**
+   * @param prefix
+   * @param clazz with a default constructor
+   * @return a new instance with keys under the prefix bound to its setters or public fields
+   */
+  <T> T bind(String prefix, Class<T> clazz) {
+    return Binder.of(clazz).bind(this, prefix);
+  }
+
+  static String asPrefix(String prefix) {
+
+    if (prefix == null)
+      return "";
+
+    return prefix.isEmpty() || prefix.endsWith(".") ? prefix : prefix + ".";
+  }
+
+  /**
+   * @param key
+   * @return position of the first key not less than the given one
+   */
+  private int lowerBound(String key) {
+
+    int lo = 0, hi = size();
+
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (keyAt(mid).compareTo(key) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+
+    return lo;
+  }
+
+  /**
+   * Walks the sorted keys of both snapshots once to find what changed.
+   * 
+   * @param previous
+   * @return changes from the previous snapshot to this one
+   */
+  ConfigChangeEvent diff(Snapshot previous) {
+
+    List<String> added = new ArrayList<>();
+    List<String> removed = new ArrayList<>();
+    List<String> changed = new ArrayList<>();
+
+    final int prev = previous.size();
+    final int next = size();
+    int i = 0, j = 0;
+
+    while (i < prev || j < next) {
+
+      int c = i == prev ? 1 : j == next ? -1 : previous.keyAt(i).compareTo(keyAt(j));
+
+      if (c < 0) {
+        removed.add(previous.keyAt(i++));
+      } else if (c > 0) {
+        added.add(keyAt(j++));
+      } else {
+        if (!Objects.equals(previous.valueAt(i), valueAt(j))) {
+          changed.add(keyAt(j));
+        }
+        i++;
+        j++;
+      }
+    }
+
+    return new ConfigChangeEvent(previous.view, view, added, removed, changed);
+  }
+
+  private class Subset extends AbstractMap<String, String> {
+
+    private final String prefix;
+    private final int from;
+    private final int to;
+
+    private final Set<Map.Entry<String, String>> entries =
+        new AbstractSet<Map.Entry<String, String>>() {
+
+          @Override
+          public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+
+              private int i = from;
+
+              @Override
+              public boolean hasNext() {
+                return i < to;
+              }
+
+              @Override
+              public Map.Entry<String, String> next() {
+                if (!hasNext())
+                  throw new NoSuchElementException();
+                Map.Entry<String, String> e = new SimpleImmutableEntry<>(
+                    keyAt(i).substring(prefix.length()), valueAt(i));
+                i++;
+                return e;
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            return to - from;
+          }
+        };
+
+    private Subset(String prefix, int from, int to) {
+      this.prefix = prefix;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && indexOf(prefix + key) >= 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+      return entries;
+    }
+
+    @Override
+    public String get(Object key) {
+      int i = key instanceof String ? indexOf(prefix + key) : -1;
+      return i < 0 ? null : valueAt(i);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  private class View extends AbstractMap<String, String> {
+
+    private final Set<Map.Entry<String, String>> entries =
+        new AbstractSet<Map.Entry<String, String>>() {
+
+          @Override
+          public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+
+              private int i = 0;
+
+              @Override
+              public boolean hasNext() {
+                return i < Snapshot.this.size();
+              }
+
+              @Override
+              public Map.Entry<String, String> next() {
+                if (!hasNext())
+                  throw new NoSuchElementException();
+                Map.Entry<String, String> e = new SimpleImmutableEntry<>(keyAt(i), valueAt(i));
+                i++;
+                return e;
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            return Snapshot.this.size();
+          }
+        };
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+      return entries;
+    }
+
+    @Override
+    public String get(Object key) {
+      int i = indexOf(key);
+      return i < 0 ? null : valueAt(i);
+    }
+
+    @Override
+    public int size() {
+      return Snapshot.this.size();
+    }
+  }
+
+}
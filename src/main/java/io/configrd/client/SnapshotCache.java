@@ -0,0 +1,149 @@
+package io.configrd.client;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Last known good configs persisted on disk so a client can start without waiting on, or even
+ * reaching, its source.
+ * 
+ * Files hold the magic CFGD, a format version, the ETag (empty if none), the number of entries
+ * and then each key and value. Strings are stored as an int length followed by UTF-8 bytes.
+ */
+final class SnapshotCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(SnapshotCache.class);
+
+  private static final int MAGIC = 0x43464744;
+  private static final int VERSION = 1;
+
+  static final class Entry {
+
+    final String etag;
+    final Map<String, Object> configs;
+
+    Entry(String etag, Map<String, Object> configs) {
+      this.etag = etag;
+      this.configs = configs;
+    }
+  }
+
+  private final Path file;
+
+  /**
+   * @param dir cache directory
+   * @param key identifies the cached configs, i.e. their url
+   */
+  SnapshotCache(Path dir, String key) {
+    this.file = dir.resolve(hex(Fingerprint.of(key.getBytes(StandardCharsets.UTF_8))) + ".cfgd");
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  Optional<Entry> read() {
+
+    if (!Files.isRegularFile(file))
+      return Optional.empty();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        logger.warn("Ignoring unreadable config cache " + file);
+        return Optional.empty();
+      }
+
+      String etag = string(buffer);
+      int count = buffer.getInt();
+      Map<String, Object> configs = new HashMap<>(count * 4 / 3 + 1);
+
+      for (int i = 0; i < count; i++) {
+        configs.put(string(buffer), string(buffer));
+      }
+
+      return Optional.of(new Entry(etag.isEmpty() ? null : etag, configs));
+
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to read config cache " + file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes to a temporary file first and moves it in place so readers never see a partial file.
+   * 
+   * @param etag
+   * @param configs
+   */
+  void write(String etag, Map<String, Object> configs) {
+
+    try {
+
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        string(out, etag == null ? "" : etag);
+        out.writeInt(configs.size());
+
+        for (Map.Entry<String, Object> e : configs.entrySet()) {
+          string(out, e.getKey());
+          string(out, e.getValue() == null ? "" : String.valueOf(e.getValue()));
+        }
+      }
+
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+    } catch (IOException e) {
+      logger.warn("Unable to write config cache " + file, e);
+    }
+  }
+
+  private static String string(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void string(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder b = new StringBuilder(bytes.length * 2);
+    for (byte x : bytes) {
+      b.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+    }
+    return b.toString();
+  }
+
+}
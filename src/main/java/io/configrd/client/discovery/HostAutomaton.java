@@ -0,0 +1,402 @@
+package io.configrd.client.discovery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches a name against many wildcard rules at once, "*" matching any run of characters and "?"
+ * any one character. Rules without wildcards are exact names and rules ending in "*" prefixes.
+ *
+ * Rules are compiled up front into a deterministic automaton over the characters they use, so
+ * matching is one table lookup per character of the name however many rules there are. An
+ * automaton is bounded to MAX_STATES states. Rules whose wildcards overlap so much that together
+ * they'd need more are split between several automata, each run over the name, and a single rule
+ * needing more on its own is matched directly.
+ */
+final class HostAutomaton {
+
+  private static final int MAX_STATES = 4096;
+
+  private static final int[] NONE = new int[0];
+
+  private final Part[] parts;
+
+  /**
+   * @param rules wildcard rules in precedence order
+   */
+  HostAutomaton(List<String> rules) {
+
+    char[][] chars = new char[rules.size()][];
+
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = rules.get(i).toCharArray();
+    }
+
+    List<Part> parts = new ArrayList<>();
+    split(chars, 0, chars.length, parts);
+    this.parts = parts.toArray(new Part[0]);
+  }
+
+  /**
+   * More literal characters first, then fewer "*", then alphabetically so precedence doesn't
+   * depend on the order rules were read in.
+   */
+  static int compare(String a, String b) {
+
+    int c = Integer.compare(literals(b), literals(a));
+
+    if (c == 0)
+      c = Integer.compare(stars(a), stars(b));
+
+    return c != 0 ? c : a.compareTo(b);
+  }
+
+  static boolean isPattern(String name) {
+    return name.indexOf('*') >= 0 || name.indexOf('?') >= 0;
+  }
+
+  /**
+   * @param name
+   * @return indexes of the rules matching the name in precedence order
+   */
+  int[] match(String name) {
+
+    if (parts.length == 1)
+      return parts[0].match(name);
+
+    // Parts hold consecutive ranges of rules so their matches are already in order
+    int[] matched = NONE;
+
+    for (Part p : parts) {
+
+      int[] m = p.match(name);
+
+      if (m.length > 0) {
+        int[] joined = Arrays.copyOf(matched, matched.length + m.length);
+        System.arraycopy(m, 0, joined, matched.length, m.length);
+        matched = joined;
+      }
+    }
+
+    return matched;
+  }
+
+  private static void split(char[][] rules, int from, int to, List<Part> parts) {
+
+    if (from == to)
+      return;
+
+    Part p = Dfa.compile(rules, from, to);
+
+    if (p == null && to - from == 1)
+      p = new Glob(rules[from], from);
+
+    if (p != null) {
+      parts.add(p);
+      return;
+    }
+
+    int mid = (from + to) >>> 1;
+    split(rules, from, mid, parts);
+    split(rules, mid, to, parts);
+  }
+
+  private interface Part {
+
+    int[] match(String name);
+  }
+
+  /**
+   * Rules numbered from one position per character plus one past the end, a state is the sorted
+   * positions reached so far.
+   */
+  private static final class Dfa implements Part {
+
+    private static final int END = -1;
+    private static final int STAR = -2;
+    private static final int ANY = -3;
+
+    // Characters no rule uses share class 0, as does the dead state
+    private static final int OTHER = 0;
+    private static final int DEAD = 0;
+
+    private final int[] ascii;
+    private final Map<Character, Integer> classes;
+    private final int[][] next;
+    private final int[][] accepts;
+    private final int start;
+
+    private Dfa(int[] ascii, Map<Character, Integer> classes, int[][] next, int[][] accepts,
+        int start) {
+      this.ascii = ascii;
+      this.classes = classes;
+      this.next = next;
+      this.accepts = accepts;
+      this.start = start;
+    }
+
+    /**
+     * @return the automaton or null if it'd need more than MAX_STATES states
+     */
+    static Dfa compile(char[][] rules, int from, int to) {
+
+      final int[] ascii = new int[128];
+      final Map<Character, Integer> classes = new HashMap<>();
+      int count = 1;
+
+      int positions = 0;
+
+      for (int r = from; r < to; r++) {
+
+        positions += rules[r].length + 1;
+
+        for (char c : rules[r]) {
+          if (c == '*' || c == '?')
+            continue;
+          if (c < ascii.length) {
+            if (ascii[c] == OTHER)
+              ascii[c] = count++;
+          } else if (!classes.containsKey(c)) {
+            classes.put(c, count++);
+          }
+        }
+      }
+
+      // What each position needs next: a character class, any character, a run or nothing
+      final int[] need = new int[positions];
+      final int[] rule = new int[positions];
+      final int[] starts = new int[to - from];
+
+      for (int r = from, p = 0; r < to; r++) {
+
+        starts[r - from] = p;
+
+        for (char c : rules[r]) {
+          rule[p] = r;
+          need[p++] = c == '*' ? STAR
+              : c == '?' ? ANY : c < ascii.length ? ascii[c] : classes.get(c);
+        }
+
+        rule[p] = r;
+        need[p++] = END;
+      }
+
+      final Map<State, Integer> ids = new HashMap<>();
+      final List<int[]> sets = new ArrayList<>();
+      final Deque<Integer> pending = new ArrayDeque<>();
+
+      // Positions reached by a step, each added once
+      final int[] buffer = new int[positions];
+      final boolean[] added = new boolean[positions];
+      int n = 0;
+
+      for (int s : starts) {
+        n = enter(need, s, buffer, added, n);
+      }
+
+      id(NONE, ids, sets, pending);
+      final int start = id(sorted(buffer, added, n), ids, sets, pending);
+
+      final List<int[]> next = new ArrayList<>();
+      next.add(new int[count]);
+
+      while (!pending.isEmpty()) {
+
+        final int[] set = sets.get(pending.pop());
+        final int[] row = new int[count];
+
+        for (int c = 0; c < count; c++) {
+
+          n = 0;
+
+          for (int p : set) {
+            if (need[p] == STAR) {
+              n = enter(need, p, buffer, added, n);
+            } else if (need[p] == ANY || need[p] == c) {
+              n = enter(need, p + 1, buffer, added, n);
+            }
+          }
+
+          row[c] = id(sorted(buffer, added, n), ids, sets, pending);
+
+          if (sets.size() > MAX_STATES)
+            return null;
+        }
+
+        next.add(row);
+      }
+
+      final int[][] accepts = new int[sets.size()][];
+
+      for (int i = 0; i < accepts.length; i++) {
+
+        int[] set = sets.get(i);
+        int k = 0;
+
+        // Positions are sorted by rule so accepted rules come out in precedence order
+        for (int p : set) {
+          if (need[p] == END)
+            buffer[k++] = rule[p];
+        }
+
+        accepts[i] = k == 0 ? NONE : Arrays.copyOf(buffer, k);
+      }
+
+      return new Dfa(ascii, classes, next.toArray(new int[0][]), accepts, start);
+    }
+
+    @Override
+    public int[] match(String name) {
+
+      int s = start;
+
+      for (int i = 0; i < name.length() && s != DEAD; i++) {
+
+        char c = name.charAt(i);
+        s = next[s][c < ascii.length ? ascii[c] : classes.getOrDefault(c, OTHER)];
+      }
+
+      return accepts[s];
+    }
+
+    /**
+     * Enter a position, "*" matching nothing moves on to the next position too.
+     */
+    private static int enter(int[] need, int p, int[] buffer, boolean[] added, int n) {
+
+      while (true) {
+        if (!added[p]) {
+          added[p] = true;
+          buffer[n++] = p;
+        }
+        if (need[p] != STAR)
+          return n;
+        p++;
+      }
+    }
+
+    private static int[] sorted(int[] buffer, boolean[] added, int n) {
+
+      if (n == 0)
+        return NONE;
+
+      for (int i = 0; i < n; i++) {
+        added[buffer[i]] = false;
+      }
+
+      Arrays.sort(buffer, 0, n);
+      return Arrays.copyOf(buffer, n);
+    }
+
+    /**
+     * States are numbered in the order found and each new one is queued for its transitions.
+     */
+    private static int id(int[] set, Map<State, Integer> ids, List<int[]> sets,
+        Deque<Integer> pending) {
+
+      State key = new State(set);
+      Integer id = ids.get(key);
+
+      if (id == null) {
+        id = sets.size();
+        ids.put(key, id);
+        sets.add(set);
+        if (id != DEAD)
+          pending.add(id);
+      }
+
+      return id;
+    }
+  }
+
+  private static final class State {
+
+    private final int[] positions;
+    private final int hash;
+
+    private State(int[] positions) {
+      this.positions = positions;
+      this.hash = Arrays.hashCode(positions);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof State && Arrays.equals(positions, ((State) obj).positions);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * A single rule matched by backtracking to the last "*", for rules too irregular to compile.
+   */
+  private static final class Glob implements Part {
+
+    private final char[] rule;
+    private final int[] index;
+
+    private Glob(char[] rule, int index) {
+      this.rule = rule;
+      this.index = new int[] {index};
+    }
+
+    @Override
+    public int[] match(String name) {
+
+      int i = 0, p = 0, star = -1, mark = 0;
+
+      while (i < name.length()) {
+
+        if (p < rule.length && (rule[p] == '?' || rule[p] == name.charAt(i))) {
+          i++;
+          p++;
+        } else if (p < rule.length && rule[p] == '*') {
+          star = p++;
+          mark = i;
+        } else if (star >= 0) {
+          p = star + 1;
+          i = ++mark;
+        } else {
+          return NONE;
+        }
+      }
+
+      while (p < rule.length && rule[p] == '*')
+        p++;
+
+      return p == rule.length ? index : NONE;
+    }
+  }
+
+  private static int literals(String rule) {
+
+    int n = 0;
+
+    for (int i = 0; i < rule.length(); i++) {
+      if (rule.charAt(i) != '*' && rule.charAt(i) != '?')
+        n++;
+    }
+
+    return n;
+  }
+
+  private static int stars(String rule) {
+
+    int n = 0;
+
+    for (int i = 0; i < rule.length(); i++) {
+      if (rule.charAt(i) == '*')
+        n++;
+    }
+
+    return n;
+  }
+}
@@ -0,0 +1,252 @@
+package io.configrd.client.discovery;
+
+import static java.util.stream.Collectors.toList;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Host mappings compiled once for lookup. A config path is resolved by, in order:
+ *
+ * <ol>
+ * <li>exact host name</li>
+ * <li>exact environment name</li>
+ * <li>wildcard patterns such as "web-*.prod", "api-*" or "qa?", most specific first, then regular
+ * expressions prefixed with "~" such as "~api-[0-9a-f]{4}-.*", all tried on the host name before
+ * any is tried on the environment</li>
+ * <li>the "*" catch all</li>
+ * </ol>
+ *
+ * Names are matched ignoring case. Of mappings differing only in case the first in key order is
+ * kept and the others ignored with a warning. Patterns are compiled up front into automata
+ * matching in time linear in the length of the name whatever the number of mappings, split only
+ * between patterns whose wildcards overlap too much to share one. Regular expressions are indexed
+ * by their literal prefix and only tried on names starting with it. Results are cached per host
+ * and environment for the lifetime of the lookup.
+ */
+public final class HostsLookup {
+
+  private static final Logger logger = LoggerFactory.getLogger(HostsLookup.class);
+
+  private static final String CATCH_ALL = "*";
+
+  private static final String REGEX = "~";
+
+  private static final String REGEX_META = "\\.[]{}()*+?^$|";
+
+  private static final int MAX_CACHED = 256;
+
+  private final Map<String, URI> exact;
+  private final List<Rule> rules;
+  private final HostAutomaton patterns;
+  private final URI fallback;
+
+  private final Map<List<String>, Optional<URI>> resolved = new ConcurrentHashMap<>();
+
+  private HostsLookup(Map<String, URI> exact, List<Rule> rules, URI fallback) {
+    this.exact = exact;
+    this.rules = rules;
+    this.patterns = new HostAutomaton(rules.stream().map(r -> r.pattern).collect(toList()));
+    this.fallback = fallback;
+  }
+
+  /**
+   * @param mappings host, environment or pattern to config uri
+   * @return
+   */
+  public static HostsLookup compile(Map<String, ?> mappings) {
+
+    Map<String, URI> exact = new HashMap<>();
+    Map<String, Rule> globs = new HashMap<>();
+    List<Rule> regexes = new ArrayList<>();
+    URI fallback = null;
+
+    // In key order so which of the names differing only in case is kept doesn't vary
+    List<Map.Entry<String, ?>> entries = new ArrayList<>(mappings.entrySet());
+    entries.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+
+    for (Map.Entry<String, ?> e : entries) {
+
+      String key = e.getKey().trim();
+      String name = key.toLowerCase(Locale.ROOT);
+      String value = e.getValue() == null ? "" : String.valueOf(e.getValue()).trim();
+
+      if (name.isEmpty() || value.isEmpty())
+        continue;
+
+      final URI uri;
+
+      try {
+        uri = URI.create(value);
+      } catch (IllegalArgumentException ex) {
+        logger.warn("Ignoring host mapping " + e.getKey() + " to invalid uri " + value);
+        continue;
+      }
+
+      if (CATCH_ALL.equals(name)) {
+        fallback = uri;
+      } else if (name.startsWith(REGEX)) {
+
+        String regex = key.substring(REGEX.length());
+
+        try {
+          regexes.add(new Rule(regex, literalPrefix(regex) + "*",
+              Pattern.compile(regex, Pattern.CASE_INSENSITIVE), uri));
+        } catch (IllegalArgumentException ex) {
+          logger.warn("Ignoring host mapping " + e.getKey() + " with invalid regex: "
+              + ex.getMessage());
+        }
+
+      } else if (HostAutomaton.isPattern(name)) {
+        if (globs.putIfAbsent(name, new Rule(name, name, null, uri)) != null)
+          logger.warn("Ignoring host mapping " + e.getKey() + " differing only in case");
+      } else {
+        if (exact.putIfAbsent(name, uri) != null)
+          logger.warn("Ignoring host mapping " + e.getKey() + " differing only in case");
+      }
+    }
+
+    regexes.sort((a, b) -> a.name.compareTo(b.name));
+
+    List<Rule> rules = new ArrayList<>(globs.values());
+    rules.sort((a, b) -> HostAutomaton.compare(a.pattern, b.pattern));
+    rules.addAll(regexes);
+
+    return new HostsLookup(exact, rules, fallback);
+  }
+
+  /**
+   * @param host
+   * @param env
+   * @return the config uri mapped to the host or environment
+   */
+  public Optional<URI> lookup(String host, String env) {
+
+    List<String> key = Arrays.asList(host, env);
+    Optional<URI> uri = resolved.get(key);
+
+    if (uri == null) {
+
+      uri = resolve(normalize(host), normalize(env));
+
+      if (resolved.size() >= MAX_CACHED)
+        resolved.clear();
+
+      resolved.put(key, uri);
+    }
+
+    return uri;
+  }
+
+  private Optional<URI> resolve(String host, String env) {
+
+    URI uri = host == null ? null : exact.get(host);
+
+    if (uri == null && env != null)
+      uri = exact.get(env);
+
+    if (uri == null)
+      uri = match(host, env);
+
+    if (uri == null && fallback != null) {
+      logger.info("Didn't locate any config path for host " + host + " or env " + env
+          + ". Falling back to '*' environment.");
+      uri = fallback;
+    }
+
+    if (uri == null)
+      logger.warn("Unable to resolve a config path for host " + host + " or env " + env);
+
+    return Optional.ofNullable(uri);
+  }
+
+  /**
+   * First rule in precedence order matching the host, or failing that the environment.
+   */
+  private URI match(String host, String env) {
+
+    URI uri = host == null ? null : match(host);
+
+    if (uri == null && env != null)
+      uri = match(env);
+
+    return uri;
+  }
+
+  private URI match(String name) {
+
+    for (int i : patterns.match(name)) {
+
+      Rule rule = rules.get(i);
+
+      if (rule.matches(name))
+        return rule.uri;
+    }
+
+    return null;
+  }
+
+  /**
+   * Literal characters every match of the regex starts with, stopping short of the first
+   * metacharacter.
+   */
+  static String literalPrefix(String regex) {
+
+    if (regex.indexOf('|') >= 0)
+      return "";
+
+    StringBuilder prefix = new StringBuilder();
+
+    for (int i = regex.startsWith("^") ? 1 : 0; i < regex.length(); i++) {
+
+      char c = regex.charAt(i);
+
+      if (REGEX_META.indexOf(c) >= 0) {
+        // The last literal is optional
+        if ((c == '?' || c == '*' || c == '{') && prefix.length() > 0)
+          prefix.setLength(prefix.length() - 1);
+        break;
+      }
+
+      prefix.append(c);
+    }
+
+    return prefix.toString().toLowerCase(Locale.ROOT);
+  }
+
+  private static String normalize(String name) {
+
+    if (name == null || name.trim().isEmpty())
+      return null;
+
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Rule {
+
+    private final String name;
+    private final String pattern;
+    private final Pattern regex;
+    private final URI uri;
+
+    private Rule(String name, String pattern, Pattern regex, URI uri) {
+      this.name = name;
+      this.pattern = pattern;
+      this.regex = regex;
+      this.uri = uri;
+    }
+
+    boolean matches(String name) {
+      return regex == null || regex.matcher(name).matches();
+    }
+  }
+}
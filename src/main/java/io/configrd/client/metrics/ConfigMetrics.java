@@ -0,0 +1,62 @@
+package io.configrd.client.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Receives measurements of loading configs. Configs are identified by name, usually the uri and
+ * path they were built from. All methods default to doing nothing so implementations only override
+ * what they report.
+ */
+public interface ConfigMetrics {
+
+  public enum Stage {
+    /** Fetching configs from the source, including parsing where the source does both */
+    FETCH,
+    /** Parsing fetched bytes, where the source reports it separately */
+    PARSE,
+    /** Merging fetched configs with host variables */
+    MERGE,
+    /** Filling placeholders */
+    FILL
+  }
+
+  public static final ConfigMetrics NOOP = new ConfigMetrics() {};
+
+  /**
+   * Called once when a config is built.
+   * 
+   * @param config
+   * @param snapshotAgeMillis millis since the loaded configs were last confirmed current with the
+   *        source
+   */
+  default void register(String config, LongSupplier snapshotAgeMillis) {}
+
+  /**
+   * Called once when a config is closed.
+   * 
+   * @param config
+   */
+  default void unregister(String config) {}
+
+  default void timing(String config, Stage stage, long nanos) {}
+
+  default void bytesFetched(String config, long bytes) {}
+
+  /**
+   * A refresh loaded new configs.
+   * 
+   * @param config
+   * @param keys number of keys loaded
+   */
+  default void refreshed(String config, int keys) {}
+
+  /**
+   * A refresh found the source unchanged.
+   * 
+   * @param config
+   */
+  default void skipped(String config) {}
+
+  default void failed(String config, Throwable e) {}
+
+}
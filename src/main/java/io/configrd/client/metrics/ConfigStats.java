@@ -0,0 +1,99 @@
+package io.configrd.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Load statistics of a single config, registered as an MBean by {@link JmxConfigMetrics}.
+ */
+public class ConfigStats implements ConfigStatsMBean {
+
+  private final AtomicLong refreshes = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong bytesFetched = new AtomicLong();
+  private final AtomicLongArray timings = new AtomicLongArray(ConfigMetrics.Stage.values().length);
+  private volatile int keys;
+  private volatile LongSupplier snapshotAge = () -> -1;
+
+  void refreshed(int keys) {
+    this.keys = keys;
+    refreshes.incrementAndGet();
+  }
+
+  void skipped() {
+    skipped.incrementAndGet();
+  }
+
+  void failed() {
+    failures.incrementAndGet();
+  }
+
+  void bytesFetched(long bytes) {
+    bytesFetched.addAndGet(bytes);
+  }
+
+  void timing(ConfigMetrics.Stage stage, long nanos) {
+    timings.set(stage.ordinal(), nanos);
+  }
+
+  void snapshotAge(LongSupplier snapshotAge) {
+    this.snapshotAge = snapshotAge;
+  }
+
+  private double millis(ConfigMetrics.Stage stage) {
+    return timings.get(stage.ordinal()) / 1_000_000d;
+  }
+
+  @Override
+  public long getRefreshes() {
+    return refreshes.get();
+  }
+
+  @Override
+  public long getSkipped() {
+    return skipped.get();
+  }
+
+  @Override
+  public long getFailures() {
+    return failures.get();
+  }
+
+  @Override
+  public int getKeys() {
+    return keys;
+  }
+
+  @Override
+  public long getBytesFetched() {
+    return bytesFetched.get();
+  }
+
+  @Override
+  public long getSnapshotAgeMillis() {
+    return snapshotAge.getAsLong();
+  }
+
+  @Override
+  public double getLastFetchMillis() {
+    return millis(ConfigMetrics.Stage.FETCH);
+  }
+
+  @Override
+  public double getLastParseMillis() {
+    return millis(ConfigMetrics.Stage.PARSE);
+  }
+
+  @Override
+  public double getLastMergeMillis() {
+    return millis(ConfigMetrics.Stage.MERGE);
+  }
+
+  @Override
+  public double getLastFillMillis() {
+    return millis(ConfigMetrics.Stage.FILL);
+  }
+
+}
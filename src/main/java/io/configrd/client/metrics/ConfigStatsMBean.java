@@ -0,0 +1,28 @@
+package io.configrd.client.metrics;
+
+/**
+ * Load statistics of a single config exposed over JMX.
+ */
+public interface ConfigStatsMBean {
+
+  public long getRefreshes();
+
+  public long getSkipped();
+
+  public long getFailures();
+
+  public int getKeys();
+
+  public long getBytesFetched();
+
+  public long getSnapshotAgeMillis();
+
+  public double getLastFetchMillis();
+
+  public double getLastParseMillis();
+
+  public double getLastMergeMillis();
+
+  public double getLastFillMillis();
+
+}
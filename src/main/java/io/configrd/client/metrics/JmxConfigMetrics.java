@@ -0,0 +1,156 @@
+package io.configrd.client.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes a {@link ConfigStatsMBean} per config on the platform MBean server under
+ * io.configrd:type=Config,name=&lt;config&gt;. Configs built with the same name share stats, which
+ * are unpublished once the last of them is closed.
+ */
+public class JmxConfigMetrics implements ConfigMetrics {
+
+  private static final Logger logger = LoggerFactory.getLogger(JmxConfigMetrics.class);
+
+  private final MBeanServer server;
+
+  private final Map<String, Registration> stats = new ConcurrentHashMap<>();
+
+  public JmxConfigMetrics() {
+    this(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  public JmxConfigMetrics(MBeanServer server) {
+    this.server = server;
+  }
+
+  /**
+   * @param config
+   * @return stats of the config or null if no config of that name is open
+   */
+  public ConfigStats getStats(String config) {
+    Registration r = stats.get(config);
+    return r == null ? null : r.stats;
+  }
+
+  @Override
+  public void register(String config, LongSupplier snapshotAgeMillis) {
+
+    stats.compute(config, (k, r) -> {
+
+      if (r == null) {
+        r = new Registration(k);
+        publish(r);
+      }
+
+      r.configs++;
+      r.stats.snapshotAge(snapshotAgeMillis);
+      return r;
+    });
+  }
+
+  @Override
+  public void unregister(String config) {
+
+    stats.computeIfPresent(config, (k, r) -> {
+
+      if (--r.configs > 0)
+        return r;
+
+      unpublish(r);
+      return null;
+    });
+  }
+
+  @Override
+  public void timing(String config, Stage stage, long nanos) {
+    ConfigStats s = getStats(config);
+    if (s != null)
+      s.timing(stage, nanos);
+  }
+
+  @Override
+  public void bytesFetched(String config, long bytes) {
+    ConfigStats s = getStats(config);
+    if (s != null)
+      s.bytesFetched(bytes);
+  }
+
+  @Override
+  public void refreshed(String config, int keys) {
+    ConfigStats s = getStats(config);
+    if (s != null)
+      s.refreshed(keys);
+  }
+
+  @Override
+  public void skipped(String config) {
+    ConfigStats s = getStats(config);
+    if (s != null)
+      s.skipped();
+  }
+
+  @Override
+  public void failed(String config, Throwable e) {
+    ConfigStats s = getStats(config);
+    if (s != null)
+      s.failed();
+  }
+
+  private void publish(Registration r) {
+
+    try {
+
+      if (!server.isRegistered(r.name)) {
+        server.registerMBean(r.stats, r.name);
+      }
+
+    } catch (Exception e) {
+      logger.warn("Unable to register config metrics for " + r.config, e);
+    }
+  }
+
+  private void unpublish(Registration r) {
+
+    try {
+
+      if (server.isRegistered(r.name)) {
+        server.unregisterMBean(r.name);
+      }
+
+    } catch (Exception e) {
+      logger.warn("Unable to unregister config metrics for " + r.config, e);
+    }
+  }
+
+  private static final class Registration {
+
+    private final String config;
+    private final ObjectName name;
+    private final ConfigStats stats = new ConfigStats();
+
+    // Open configs sharing the name
+    private int configs = 0;
+
+    private Registration(String config) {
+      this.config = config;
+      this.name = objectName(config);
+    }
+
+    private static ObjectName objectName(String config) {
+      try {
+        return new ObjectName("io.configrd:type=Config,name=" + ObjectName.quote(config));
+      } catch (MalformedObjectNameException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+  }
+
+}
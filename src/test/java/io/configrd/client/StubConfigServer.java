@@ -0,0 +1,207 @@
+package io.configrd.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPOutputStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A configrd server on a local port for tests, counting what it's asked for. Paths under
+ * /configrd/v1:
+ *
+ * <ul>
+ * <li>env/dev/simple: property.3.name of the current version with its ETag, streams events to
+ * subscribers while pushing</li>
+ * <li>env/dev/nested: nested JSON, gzipped and chunked</li>
+ * <li>env/dev/flaky: like simple without an ETag, answering faultCode while faults are left</li>
+ * <li>env/dev/delta: keys a, b and c, patched to a, b and d.e for version 2</li>
+ * </ul>
+ */
+public final class StubConfigServer {
+
+  public final AtomicInteger version = new AtomicInteger(1);
+  public final AtomicInteger fetches = new AtomicInteger();
+  public final AtomicInteger notModified = new AtomicInteger();
+  public final AtomicReference<String> ifNoneMatch = new AtomicReference<>();
+  public final AtomicInteger faults = new AtomicInteger();
+  public final AtomicInteger faultCode = new AtomicInteger(503);
+  public final AtomicInteger flakyCalls = new AtomicInteger();
+  public final AtomicInteger delay = new AtomicInteger();
+  public final AtomicBoolean pushing = new AtomicBoolean();
+  public final AtomicInteger patches = new AtomicInteger();
+  public final AtomicInteger subscriptions = new AtomicInteger();
+  public final List<HttpExchange> streams = new CopyOnWriteArrayList<>();
+
+  private final HttpServer server;
+
+  public StubConfigServer() throws IOException {
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/configrd/v1/env/dev/simple", this::simple);
+    server.createContext("/configrd/v1/env/dev/nested", this::nested);
+    server.createContext("/configrd/v1/env/dev/flaky", this::flaky);
+    server.createContext("/configrd/v1/env/dev/delta", this::delta);
+    server.start();
+  }
+
+  /**
+   * @return the server's root, i.e. http://localhost:port/configrd/v1
+   */
+  public String uri() {
+    return "http://localhost:" + server.getAddress().getPort() + "/configrd/v1";
+  }
+
+  public void stop() {
+    disconnect();
+    server.stop(0);
+  }
+
+  /**
+   * Write an event to every open event stream.
+   */
+  public void publish(String event) throws IOException {
+    for (HttpExchange e : streams) {
+      e.getResponseBody().write(event.getBytes(StandardCharsets.UTF_8));
+      e.getResponseBody().flush();
+    }
+  }
+
+  /**
+   * Close every open event stream.
+   */
+  public void disconnect() {
+    for (HttpExchange e : streams) {
+      streams.remove(e);
+      e.close();
+    }
+  }
+
+  public static void await(BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+      Thread.sleep(50);
+    }
+  }
+
+  private void simple(HttpExchange exchange) throws IOException {
+
+    if ("text/event-stream".equals(exchange.getRequestHeaders().getFirst("Accept"))) {
+
+      subscriptions.incrementAndGet();
+
+      if (pushing.get()) {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        streams.add(exchange);
+        return;
+      }
+    }
+
+    fetches.incrementAndGet();
+
+    try {
+      Thread.sleep(delay.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    String etag = "\"v" + version.get() + "\"";
+    ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+
+    if (etag.equals(ifNoneMatch.get())) {
+      notModified.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] body = ("{\"property.3.name\":\"value-" + version.get() + "\"}")
+        .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("ETag", etag);
+    exchange.sendResponseHeaders(200, body.length);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private void nested(HttpExchange exchange) throws IOException {
+
+    byte[] body = ("{\"db\":{\"primary\":{\"host\":\"db-1\",\"port\":5432},"
+        + "\"replicas\":[\"db-2\",\"db-3\"]},\"unset\":null}").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+    exchange.sendResponseHeaders(200, 0);
+
+    try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+      out.write(body);
+    }
+  }
+
+  private void flaky(HttpExchange exchange) throws IOException {
+
+    flakyCalls.incrementAndGet();
+
+    if (faults.getAndUpdate(f -> Math.max(0, f - 1)) > 0) {
+      if (faultCode.get() == 302)
+        exchange.getResponseHeaders().add("Location", "/elsewhere");
+      exchange.sendResponseHeaders(faultCode.get(), -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] body = ("{\"property.3.name\":\"value-" + version.get() + "\"}")
+        .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private void delta(HttpExchange exchange) throws IOException {
+
+    String etag = "\"v" + version.get() + "\"";
+    String since = exchange.getRequestHeaders().getFirst("If-None-Match");
+    String body;
+
+    if (etag.equals(since)) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("ETag", etag);
+
+    if ("\"v1\"".equals(since)
+        && "configrd-patch".equals(exchange.getRequestHeaders().getFirst("A-IM"))) {
+      patches.incrementAndGet();
+      exchange.getResponseHeaders().add("IM", "configrd-patch");
+      body = "{\"set\":{\"b\":\"2\",\"d\":{\"e\":\"2\"}},\"remove\":[\"c\"]}";
+      exchange.sendResponseHeaders(226, 0);
+    } else if (version.get() == 1) {
+      body = "{\"a\":\"1\",\"b\":\"1\",\"c\":\"1\"}";
+      exchange.sendResponseHeaders(200, 0);
+    } else {
+      body = "{\"a\":\"1\",\"b\":\"2\",\"d\":{\"e\":\"2\"}}";
+      exchange.sendResponseHeaders(200, 0);
+    }
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package io.configrd.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBinarySnapshot {
+
+  // Keys of one to four byte UTF-8 characters, a lone surrogate and blank or missing values
+  private static final String[][] CONFIGS = {{"db.host", "db-1"}, {"db.port", "5432"},
+      {"db.replica", "db-1"}, {"db.user", ""}, {"db.unset", null}, {"caf\u00e9.menu", "cr\u00eape"},
+      {"caf\u00e9", "open"}, {"\u6771\u4eac.region", "ap-northeast-1"},
+      {"emoji.\ud83d\ude80", "launch"}, {"broken.\ud83d", "lone"}, {"z", "last"}};
+
+  private static Map<String, Object> configs() {
+
+    Map<String, Object> configs = new HashMap<>();
+
+    for (String[] c : CONFIGS) {
+      configs.put(c[0], c[1]);
+    }
+
+    return configs;
+  }
+
+  @Test
+  public void testReadsMatchArraySnapshot() throws Exception {
+
+    Snapshot expected = Snapshot.of(configs());
+    Snapshot compact = Snapshot.compact(configs());
+
+    Assert.assertEquals(expected.size(), compact.size());
+
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals(expected.keyAt(i), compact.keyAt(i));
+      Assert.assertEquals(expected.valueAt(i), compact.valueAt(i));
+      Assert.assertEquals(i, compact.indexOf(expected.keyAt(i)));
+    }
+
+    Assert.assertEquals(expected.asMap(), compact.asMap());
+    Assert.assertEquals(expected.getProperties(), compact.getProperties());
+    Assert.assertEquals(expected.getProperty("db.port", Integer.class),
+        compact.getProperty("db.port", Integer.class));
+  }
+
+  @Test
+  public void testKeysMatchedExactlyWithoutDecoding() throws Exception {
+
+    Snapshot compact = Snapshot.compact(configs());
+
+    for (String missing : Arrays.asList("db", "db.hos", "db.hostx", "caf", "cafe", "caf\u00e8",
+        "caf\u00e9.", "\u6771", "\u6771\u4eac.regio", "emoji.\ud83d\ude81", "emoji.",
+        "broken.?", "broken.\ud83d\ude80", "", "zz")) {
+      Assert.assertEquals(missing, -1, compact.indexOf(missing));
+      Assert.assertNull(missing, compact.getProperty(missing));
+    }
+
+    Assert.assertEquals(-1, compact.indexOf(42));
+
+    Assert.assertEquals("cr\u00eape", compact.getProperty("caf\u00e9.menu"));
+    Assert.assertEquals("launch", compact.getProperty("emoji.\ud83d\ude80"));
+    Assert.assertEquals("lone", compact.getProperty("broken.\ud83d"));
+  }
+
+  @Test
+  public void testSubsetMatchesArraySnapshot() throws Exception {
+
+    Snapshot expected = Snapshot.of(configs());
+    Snapshot compact = Snapshot.compact(configs());
+
+    for (String prefix : Arrays.asList("db", "db.", "caf\u00e9", "\u6771\u4eac", "emoji",
+        "missing", "", null)) {
+
+      Map<String, String> subset = compact.subset(prefix);
+
+      Assert.assertEquals(String.valueOf(prefix), expected.subset(prefix), subset);
+      Assert.assertEquals(new ArrayList<>(expected.subset(prefix).keySet()),
+          new ArrayList<>(subset.keySet()));
+    }
+
+    Assert.assertEquals("5432", compact.subset("db").get("port"));
+    Assert.assertTrue(compact.subset("db").containsKey("unset"));
+    Assert.assertFalse(compact.subset("db").containsKey("menu"));
+  }
+
+  @Test
+  public void testDiffMatchesArraySnapshot() throws Exception {
+
+    Map<String, Object> next = configs();
+    next.put("db.port", "6543");
+    next.remove("caf\u00e9");
+    next.put("\u6771\u4eac.zone", "a");
+
+    for (Snapshot previous : Arrays.asList(Snapshot.of(configs()), Snapshot.compact(configs()))) {
+
+      ConfigChangeEvent expected = Snapshot.of(next).diff(Snapshot.of(configs()));
+      ConfigChangeEvent event = Snapshot.compact(next).diff(previous);
+
+      Assert.assertEquals(Arrays.asList("\u6771\u4eac.zone"), event.getAdded());
+      Assert.assertEquals(Arrays.asList("caf\u00e9"), event.getRemoved());
+      Assert.assertEquals(Arrays.asList("db.port"), event.getChanged());
+
+      Assert.assertEquals(expected.getAdded(), event.getAdded());
+      Assert.assertEquals(expected.getRemoved(), event.getRemoved());
+      Assert.assertEquals(expected.getChanged(), event.getChanged());
+    }
+
+    Assert.assertTrue(Snapshot.compact(configs()).diff(Snapshot.of(configs())).isEmpty());
+  }
+
+  @Test
+  public void testEmptyAndLargeSnapshots() throws Exception {
+
+    Snapshot empty = Snapshot.compact(new HashMap<>());
+    Assert.assertEquals(0, empty.size());
+    Assert.assertEquals(-1, empty.indexOf("db.host"));
+    Assert.assertTrue(empty.subset("db").isEmpty());
+
+    Map<String, Object> large = new HashMap<>();
+    List<String> keys = new ArrayList<>();
+
+    for (int i = 0; i < 10_000; i++) {
+      String key = "service." + (i % 97) + ".k\u00e9y." + i;
+      large.put(key, i % 3 == 0 ? "shared" : "value-" + i);
+      keys.add(key);
+    }
+
+    Snapshot expected = Snapshot.of(large);
+    Snapshot compact = Snapshot.compact(large);
+
+    for (String key : keys) {
+      Assert.assertEquals(expected.indexOf(key), compact.indexOf(key));
+      Assert.assertEquals(large.get(key), compact.getProperty(key));
+    }
+
+    Assert.assertEquals(expected.subset("service.42"), compact.subset("service.42"));
+  }
+
+}
@@ -0,0 +1,130 @@
+package io.configrd.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBinder {
+
+  public static class DataSource {
+
+    private String host;
+    public int port;
+    private int maxPoolSize = 10;
+    public boolean readOnly;
+    public final String name = "fixed";
+
+    public String getHost() {
+      return host;
+    }
+
+    public void setHost(String host) {
+      this.host = host;
+    }
+
+    public int getMaxPoolSize() {
+      return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+      this.maxPoolSize = maxPoolSize;
+    }
+  }
+
+  public static class NoDefault {
+
+    public NoDefault(String host) {}
+  }
+
+  @Test
+  public void testSetterAndFieldBound() throws Exception {
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put("db.host", "db-1");
+    configs.put("db.port", "5432");
+    configs.put("db.readOnly", "true");
+
+    DataSource ds = Snapshot.of(configs).bind("db", DataSource.class);
+
+    Assert.assertEquals("db-1", ds.getHost());
+    Assert.assertEquals(5432, ds.port);
+    Assert.assertTrue(ds.readOnly);
+    Assert.assertEquals(10, ds.getMaxPoolSize());
+  }
+
+  @Test
+  public void testKeysMatchIgnoringCaseDashesAndUnderscores() throws Exception {
+
+    for (String key : Arrays.asList("max-pool-size", "max_pool_size", "MAXPOOLSIZE",
+        "maxPoolSize")) {
+
+      Map<String, Object> configs = new HashMap<>();
+      configs.put("db." + key, "25");
+      configs.put("db.read-only", "true");
+
+      DataSource ds = Snapshot.of(configs).bind("db.", DataSource.class);
+
+      Assert.assertEquals(key, 25, ds.getMaxPoolSize());
+      Assert.assertTrue(key, ds.readOnly);
+    }
+  }
+
+  @Test
+  public void testUnknownAndNestedKeysIgnored() throws Exception {
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put("db.host", "db-1");
+    configs.put("db.timeout", "30");
+    configs.put("db.name", "other");
+    configs.put("db.replica.host", "db-2");
+    configs.put("dbx.port", "1");
+    configs.put("port", "2");
+
+    DataSource ds = Snapshot.of(configs).bind("db", DataSource.class);
+
+    Assert.assertEquals("db-1", ds.getHost());
+    Assert.assertEquals(0, ds.port);
+    Assert.assertEquals("fixed", ds.name);
+
+    DataSource empty = Snapshot.of(configs).bind("missing", DataSource.class);
+    Assert.assertNull(empty.getHost());
+    Assert.assertNotSame(empty, Snapshot.of(configs).bind("missing", DataSource.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testClassWithoutDefaultConstructorRejected() throws Exception {
+    Snapshot.of(new HashMap<>()).bind("db", NoDefault.class);
+  }
+
+  @Test
+  public void testSubsetAndBind() throws Exception {
+
+    StubConfigServer server = new StubConfigServer();
+
+    try {
+
+      ClientConfig config = ConfigClient.server(server.uri()).path("env/dev/nested").build();
+
+      Map<String, String> primary = config.subset("db.primary");
+      Assert.assertEquals(2, primary.size());
+      Assert.assertEquals("db-1", primary.get("host"));
+      Assert.assertEquals(Arrays.asList("host", "port"), new ArrayList<>(primary.keySet()));
+      Assert.assertSame(primary, config.subset("db.primary."));
+      Assert.assertTrue(config.subset("db.secondary").isEmpty());
+      Assert.assertEquals(4, config.subset("db").size());
+
+      DataSource ds = config.bind("db.primary", DataSource.class);
+      Assert.assertEquals("db-1", ds.getHost());
+      Assert.assertEquals(5432, ds.port);
+
+      config.close();
+
+    } finally {
+      server.stop();
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+package io.configrd.client;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Assert;
+import org.junit.Test;
+import io.configrd.core.Config;
+
+public class TestClientConfig {
+
+  @Test
+  public void testViewsAreReadOnly() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("db.host", "db-1");
+    values.put("db.port", "5432");
+
+    ClientConfig config = new ConfigClient().new ConfigImpl("test", () -> values);
+
+    for (Map<String, String> view : new Map[] {config.asMap(), config.subset("db")}) {
+
+      try {
+        view.put("db.user", "admin");
+        Assert.fail("put on " + view);
+      } catch (UnsupportedOperationException e) {
+      }
+
+      try {
+        view.clear();
+        Assert.fail("clear on " + view);
+      } catch (UnsupportedOperationException e) {
+      }
+
+      try {
+        Iterator<Map.Entry<String, String>> i = view.entrySet().iterator();
+        i.next();
+        i.remove();
+        Assert.fail("remove on " + view);
+      } catch (UnsupportedOperationException e) {
+      }
+    }
+
+    // Config requires a mutable copy
+    Properties props = config.getProperties();
+    props.put("db.host", "db-2");
+
+    Assert.assertEquals("db-1", config.asMap().get("db.host"));
+    Assert.assertEquals(2, config.asMap().size());
+  }
+
+  @Test
+  public void testBuildersKeepConfigBridge() throws Exception {
+
+    for (Class<?> builder : new Class[] {ConfigClient.SimpleConfigClientBuilder.class,
+        ConfigClient.ConfigrdConfigClientBuilder.class,
+        ConfigClient.ConfigrdServerClientBuilder.class}) {
+
+      boolean bridged = false;
+
+      for (Method m : builder.getDeclaredMethods()) {
+        bridged |= m.getName().equals("build") && m.getParameterCount() == 0
+            && m.getReturnType() == Config.class && m.isBridge();
+      }
+
+      Assert.assertTrue(builder.getSimpleName() + " has no Config build() bridge", bridged);
+    }
+
+    // Linked as callers compiled against Config build() do, against a server that's down
+    ConfigClient.LegacyBuilder legacy =
+        ConfigClient.server("http://localhost:1/configrd/v1").path("env/dev/simple");
+    Config config = legacy.build();
+
+    Assert.assertTrue(config instanceof ClientConfig);
+    Assert.assertTrue(config.getProperties().isEmpty());
+    ((ClientConfig) config).close();
+  }
+
+}
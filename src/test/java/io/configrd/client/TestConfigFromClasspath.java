@@ -31,6 +31,12 @@ public class TestConfigFromClasspath {
     Assert.assertNotNull(config.getProperty("property.3.name", String.class));
   }
 
+  @Test
+  public void testGetPropertyFromDiscoveredPath() throws Exception {
+    config = client.discover("env/hosts.properties").build();
+    Assert.assertNotNull(config.getProperty("property.1.name", String.class));
+  }
+
   @Test
   public void testGetEmptyProperties() throws Exception {
     config = client.path("does/not/exist/notexists.file").build();
@@ -1,6 +1,27 @@
 package io.configrd.client;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,11 +33,25 @@ public class TestConfigFromConfigrdConfig {
 
   private Config config;
 
+  private Path dir;
+
   @Before
   public void setup() {
     client = ConfigClient.configrdconfg("classpath:repos.yaml");
   }
 
+  @After
+  public void teardown() throws Exception {
+
+    ConfigClient.shutdown();
+
+    if (dir != null) {
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+
   @Test
   public void testGetPropertyFromDefaultRepo() throws Exception {
     config = client.path("env/dev/simple").build();
@@ -29,6 +64,105 @@ public class TestConfigFromConfigrdConfig {
     Assert.assertNotNull(config.getProperty("property.3.name", String.class));
   }
 
+  @Test
+  public void testGetPropertyFromLazyNamedPath() throws Exception {
+    ConfigClient.LazyNamedConfigImpl config =
+        (ConfigClient.LazyNamedConfigImpl) client.named("simple", "bonus").lazy().build();
+    Assert.assertTrue(config.getLoaded().isEmpty());
+
+    Assert.assertEquals("bonus", config.getProperty("bonus.1.property", String.class));
+    Assert.assertEquals(Collections.singleton("bonus"), config.getLoaded());
+
+    // Outside every named path's namespace so all of them are loaded
+    Assert.assertEquals("simple", config.getProperty("property.3.name", String.class));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("simple", "bonus")), config.getLoaded());
+  }
+
+  @Test
+  public void testLazyNamedPathsLoadedOnDemand() throws Exception {
+
+    Set<String> requested = ConcurrentHashMap.newKeySet();
+    List<Set<String>> fetched = new ArrayList<>();
+
+    ConfigClient.LazyNamedConfigImpl config = new ConfigClient().new LazyNamedConfigImpl("lazy",
+        new HashSet<>(Arrays.asList("db", "cache")), requested, () -> {
+          fetched.add(new HashSet<>(requested));
+          Map<String, Object> p = new HashMap<>();
+          for (String n : requested)
+            p.put(n + ".host", n + "-1");
+          return p;
+        }, false);
+
+    Assert.assertEquals(1, fetched.size());
+    Assert.assertEquals("db-1", config.getProperty("db.host", String.class));
+    Assert.assertEquals(Collections.singleton("db"), requested);
+    Assert.assertEquals(Collections.singleton("db"), config.getLoaded());
+
+    config.getProperty("db.port", String.class);
+    Assert.assertEquals(2, fetched.size());
+
+    config.getProperty("dbx.host", String.class);
+    Assert.assertEquals(3, fetched.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("db", "cache")), requested);
+
+    Assert.assertEquals("cache-1", config.subset("cache").get("host"));
+    Assert.assertEquals(3, fetched.size());
+
+    config.asMap();
+    Assert.assertEquals(3, fetched.size());
+  }
+
+  @Test
+  public void testReadersOfLoadingNamedPathWaitForIt() throws Exception {
+
+    Set<String> requested = ConcurrentHashMap.newKeySet();
+    AtomicInteger fetches = new AtomicInteger();
+
+    ConfigClient.LazyNamedConfigImpl config = new ConfigClient().new LazyNamedConfigImpl("lazy",
+        new HashSet<>(Arrays.asList("db", "cache")), requested, () -> {
+          fetches.incrementAndGet();
+          Map<String, Object> p = new HashMap<>();
+          for (String n : requested)
+            p.put(n + ".host", n + "-1");
+          try {
+            Thread.sleep(requested.isEmpty() ? 0 : 200);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return p;
+        }, false);
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<CompletableFuture<String>> readers = new ArrayList<>();
+
+    for (int i = 0; i < 2; i++) {
+      readers.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return config.getProperty("db.host", String.class);
+      }));
+    }
+
+    start.countDown();
+
+    // Neither reader sees the namespace as loaded before its configs are published
+    for (CompletableFuture<String> r : readers) {
+      Assert.assertEquals("db-1", r.get(5, TimeUnit.SECONDS));
+    }
+
+    Assert.assertEquals(2, fetches.get());
+    Assert.assertEquals(Collections.singleton("db"), config.getLoaded());
+  }
+
+  @Test
+  public void testGetPropertyFromDiscoveredPath() throws Exception {
+    config = client.discover("env/hosts.properties").build();
+    Assert.assertNotNull(config.getProperty("property.1.name", String.class));
+  }
+
   @Test
   public void testGetPropertyFromDefaultRepoByAbsolutePath() throws Exception {
     config = client.path("/env/dev/simple").build();
@@ -81,4 +215,43 @@ public class TestConfigFromConfigrdConfig {
     Assert.assertEquals("bonus2", props.getProperty("bonus.1.property"));
   }
 
+  @Test
+  public void testReadRepoFromConfigFile() throws Exception {
+
+    Path file = Paths.get(getClass().getClassLoader().getResource("repos.yaml").toURI());
+    ReposFile repos = ReposFile.read(file.toString(), Files.readAllBytes(file));
+
+    Assert.assertEquals("classpath:/", repos.getUri("default").get());
+    Assert.assertEquals("env/dev/bonus", repos.getNamed("default").get("bonus"));
+    Assert.assertEquals(3, repos.getNamed("default").size());
+    Assert.assertEquals("git://git@github.com:configrd/configrd-client.git#master",
+        repos.getUri("git-master").get());
+    Assert.assertFalse(repos.getUri("missing").isPresent());
+  }
+
+  @Test
+  public void testWatchReloadsNamedPathOnChange() throws Exception {
+
+    dir = Files.createTempDirectory("configrd");
+    Path file = dir.resolve("env").resolve("db").resolve("default.properties");
+    Files.createDirectories(file.getParent());
+    Files.write(file, "db.host=before".getBytes(StandardCharsets.UTF_8));
+
+    Path repos = dir.resolve("repos.yaml");
+    Files.write(repos, ("service:\n  repos:\n    default:\n      uri: " + dir.toUri()
+        + "\n      sourceName: file\n      named:\n        db: env/db\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    config = ConfigClient.configrdconfg(repos.toUri().toString()).named("db").watch().build();
+    Assert.assertEquals("before", config.getProperty("db.host", String.class));
+
+    Files.write(file, "db.host=after".getBytes(StandardCharsets.UTF_8));
+
+    for (int i = 0; i < 100 && !"after".equals(config.getProperty("db.host", String.class)); i++) {
+      Thread.sleep(100);
+    }
+
+    Assert.assertEquals("after", config.getProperty("db.host", String.class));
+  }
+
 }
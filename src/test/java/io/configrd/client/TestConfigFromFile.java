@@ -1,7 +1,16 @@
 package io.configrd.client;
 
+import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,6 +23,8 @@ public class TestConfigFromFile {
 
   private Config config;
 
+  private Path dir;
+
   @Before
   public void setup() throws Exception {
 
@@ -22,6 +33,18 @@ public class TestConfigFromFile {
 
   }
 
+  @After
+  public void teardown() throws Exception {
+
+    ConfigClient.shutdown();
+
+    if (dir != null) {
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+
   @Test
   public void testGetPropertyFromClasspathByPath() throws Exception {
     config = client.path("env/dev/simple").build();
@@ -40,6 +63,22 @@ public class TestConfigFromFile {
     Assert.assertNotNull(config.getProperty("property.3.name", String.class));
   }
 
+  @Test
+  public void testBuildAll() throws Exception {
+
+    URL url = getClass().getClassLoader().getResource("default.properties");
+    String uri = UriUtil.stripFile(url.toURI()).toString();
+
+    List<CompletableFuture<ClientConfig>> configs =
+        ConfigClient.buildAll(ConfigClient.config(uri).path("env/dev/simple"),
+            ConfigClient.config(uri).path("/env/dev/json/default.json"));
+
+    Assert.assertEquals(2, configs.size());
+    Assert.assertNotNull(configs.get(0).get().getProperty("property.3.name", String.class));
+    Assert.assertEquals("bonus2",
+        configs.get(1).get().getProperty("bonus.1.property", String.class));
+  }
+
   @Test
   public void testGetEmptyProperties() throws Exception {
     config = client.path("does/not/exist/notexists.file").build();
@@ -79,4 +118,25 @@ public class TestConfigFromFile {
     Assert.assertTrue(props.containsKey("bonus.1.property"));
     Assert.assertEquals("bonus2", props.getProperty("bonus.1.property"));
   }
+
+  @Test
+  public void testWatchReloadsOnChange() throws Exception {
+
+    dir = Files.createTempDirectory("configrd");
+    Path file = dir.resolve("env").resolve("default.properties");
+    Files.createDirectories(file.getParent());
+    Files.write(file, "property.1.name=before".getBytes(StandardCharsets.UTF_8));
+
+    config = ConfigClient.config(dir.toUri().toString()).path("env").watch().build();
+    Assert.assertEquals("before", config.getProperty("property.1.name", String.class));
+
+    Files.write(file, "property.1.name=after".getBytes(StandardCharsets.UTF_8));
+
+    for (int i = 0; i < 100
+        && !"after".equals(config.getProperty("property.1.name", String.class)); i++) {
+      Thread.sleep(100);
+    }
+
+    Assert.assertEquals("after", config.getProperty("property.1.name", String.class));
+  }
 }
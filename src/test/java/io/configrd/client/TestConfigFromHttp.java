@@ -1,9 +1,17 @@
 package io.configrd.client;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Properties;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Assert;
 import org.junit.Test;
 import io.configrd.core.Config;
+import io.configrd.core.source.SecuredRepo;
 
 public class TestConfigFromHttp {
 
@@ -69,4 +77,63 @@ public class TestConfigFromHttp {
     Assert.assertTrue(props.containsKey("bonus.1.property"));
     Assert.assertEquals("bonus2", props.getProperty("bonus.1.property"));
   }
+
+  @Test
+  public void testHostsFileReadWithBuilderCredentials() throws Exception {
+
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/hosts.properties", exchange -> {
+
+      String auth = exchange.getRequestHeaders().getFirst("Authorization");
+
+      if (!"Basic dXNlcjpzZWNyZXQ=".equals(auth)) {
+        exchange.sendResponseHeaders(401, -1);
+        exchange.close();
+        return;
+      }
+
+      byte[] body = "*=classpath:/env/dev/simple".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+
+    try {
+
+      String root = "http://localhost:" + server.getAddress().getPort();
+      URI hosts = URI.create(root + "/hosts.properties");
+
+      try (InputStream in = ConfigClient.config(root).open(hosts)) {
+        Assert.assertNull(in);
+      }
+
+      try (InputStream in = ConfigClient.config(root).basicAuth("user", "secret").open(hosts)) {
+        Properties props = new Properties();
+        props.load(in);
+        Assert.assertEquals("classpath:/env/dev/simple", props.getProperty("*"));
+      }
+
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testSharedSettingsDontHoldPassword() throws Exception {
+
+    String root = "http://localhost/configs";
+    Map<String, Object> settings =
+        ConfigClient.config(root).basicAuth("user", "secret").settings();
+
+    Assert.assertFalse(settings.containsValue("secret"));
+    Assert.assertEquals("user", settings.get(SecuredRepo.USERNAME_FIELD));
+
+    Assert.assertEquals(settings, ConfigClient.config(root).basicAuth("user", "secret").settings());
+    Assert.assertNotEquals(settings,
+        ConfigClient.config(root).basicAuth("user", "other").settings());
+    Assert.assertNotEquals(settings, ConfigClient.config(root).settings());
+  }
 }
@@ -0,0 +1,166 @@
+package io.configrd.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestConfigFromServerRefresh {
+
+  private StubConfigServer server;
+
+  private ConfigClient.ConfigrdServerClientBuilder client;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    client = ConfigClient.server(server.uri());
+  }
+
+  @After
+  public void teardown() {
+    server.stop();
+  }
+
+  @Test
+  public void testNotModifiedKeepsSnapshot() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/simple").build();
+    Map<String, String> loaded = config.asMap();
+
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+    Assert.assertNull(server.ifNoneMatch.get());
+
+    config.refresh();
+
+    Assert.assertEquals("\"v1\"", server.ifNoneMatch.get());
+    Assert.assertEquals(1, server.notModified.get());
+    Assert.assertSame(loaded, config.asMap());
+    Assert.assertEquals(1, config.getSkippedRefreshes());
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+  }
+
+  @Test
+  public void testModifiedReplacesSnapshot() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/simple").build();
+    Map<String, String> loaded = config.asMap();
+
+    server.version.incrementAndGet();
+    config.refresh();
+
+    Assert.assertEquals(2, server.fetches.get());
+    Assert.assertEquals(0, server.notModified.get());
+    Assert.assertNotSame(loaded, config.asMap());
+    Assert.assertEquals("value-2", config.getProperty("property.3.name", String.class));
+  }
+
+  @Test
+  public void testScheduledRefresh() throws Exception {
+
+    ClientConfig config = client.path("env/dev/simple").refresh(1).build();
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+
+    server.version.incrementAndGet();
+
+    for (int i = 0; i < 50
+        && !"value-2".equals(config.getProperty("property.3.name", String.class)); i++) {
+      Thread.sleep(100);
+    }
+
+    Assert.assertEquals("value-2", config.getProperty("property.3.name", String.class));
+  }
+
+  @Test
+  public void testListenersNotifiedOfChangedKeys() throws Exception {
+
+    ClientConfig config = client.path("env/dev/simple").build();
+
+    List<ConfigChangeEvent> all = new ArrayList<>();
+    List<ConfigChangeEvent> matching = new ArrayList<>();
+    List<ConfigChangeEvent> other = new ArrayList<>();
+
+    config.addListener(all::add);
+    config.addListener("property.3.", matching::add);
+    config.addListener("property.4.", other::add);
+
+    ((ConfigClient.ConfigImpl) config).refresh();
+    Assert.assertTrue(all.isEmpty());
+
+    server.version.incrementAndGet();
+    ((ConfigClient.ConfigImpl) config).refresh();
+
+    Assert.assertEquals(1, all.size());
+    Assert.assertEquals(1, matching.size());
+    Assert.assertTrue(other.isEmpty());
+    Assert.assertEquals(Arrays.asList("property.3.name"), matching.get(0).getChanged());
+    Assert.assertEquals("value-1", matching.get(0).getPrevious().get("property.3.name"));
+    Assert.assertEquals("value-2", matching.get(0).getCurrent().get("property.3.name"));
+  }
+
+  @Test
+  public void testStreamsChunkedCompressedResponse() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/nested").build();
+
+    Assert.assertEquals("db-1", config.getProperty("db.primary.host", String.class));
+    Assert.assertEquals(Integer.valueOf(5432),
+        config.getProperty("db.primary.port", Integer.class));
+    Assert.assertEquals("db-3", config.getProperty("db.replicas[1]", String.class));
+    Assert.assertFalse(config.asMap().containsKey("unset"));
+
+    config.refresh();
+    Assert.assertEquals(1, config.getSkippedRefreshes());
+  }
+
+  @Test
+  public void testServerErrorKeepsSnapshot() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/flaky").build();
+
+    server.faults.set(1);
+    config.refresh();
+
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+  }
+
+  @Test
+  public void testUnexpectedResponseKeepsSnapshot() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/flaky").build();
+
+    for (int code : new int[] {404, 403, 200, 204, 302}) {
+
+      server.faultCode.set(code);
+      server.faults.set(1);
+      config.refresh();
+
+      Assert.assertEquals(0, server.faults.get());
+      Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+    }
+  }
+
+  @Test
+  public void testNotFoundOnFirstLoadIsEmpty() throws Exception {
+
+    server.faultCode.set(404);
+    server.faults.set(1);
+
+    ClientConfig config = client.path("env/dev/flaky").build();
+
+    Assert.assertTrue(config.asMap().isEmpty());
+
+    ((ConfigClient.ConfigImpl) config).refresh();
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+  }
+
+}
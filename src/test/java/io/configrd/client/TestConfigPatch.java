@@ -0,0 +1,57 @@
+package io.configrd.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestConfigPatch {
+
+  private StubConfigServer server;
+
+  private ConfigClient.ConfigrdServerClientBuilder client;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    client = ConfigClient.server(server.uri());
+  }
+
+  @After
+  public void teardown() {
+    server.stop();
+  }
+
+  @Test
+  public void testPatchAppliedToLoadedSnapshot() throws Exception {
+
+    ClientConfig config = client.path("env/dev/delta").build();
+    List<ConfigChangeEvent> events = new ArrayList<>();
+    config.addListener(events::add);
+
+    server.version.incrementAndGet();
+    ((ConfigClient.ConfigImpl) config).refresh();
+
+    Assert.assertEquals(1, server.patches.get());
+    Assert.assertEquals("1", config.getProperty("a", String.class));
+    Assert.assertEquals("2", config.getProperty("b", String.class));
+    Assert.assertNull(config.getProperty("c", String.class));
+    Assert.assertEquals("2", config.subset("d").get("e"));
+    Assert.assertEquals(Arrays.asList("a", "b", "d.e"), new ArrayList<>(config.asMap().keySet()));
+
+    Assert.assertEquals(1, events.size());
+    Assert.assertEquals(Arrays.asList("d.e"), events.get(0).getAdded());
+    Assert.assertEquals(Arrays.asList("c"), events.get(0).getRemoved());
+    Assert.assertEquals(Arrays.asList("b"), events.get(0).getChanged());
+
+    // A config joining later is handed the full, patched configs
+    ClientConfig other = ConfigClient
+        .server(server.uri())
+        .path("env/dev/delta").build();
+    Assert.assertEquals(config.asMap(), other.asMap());
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.configrd.client;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import io.configrd.core.processor.ProcessorSelector;
+import io.configrd.core.processor.ProcessorSelector.Type;
+
+public class TestJsonStreamParser {
+
+  @Test
+  public void testFlattensLikeCoreProcessor() throws Exception {
+
+    for (String fixture : new String[] {"env/dev/json/default.json", "json/nested.json"}) {
+
+      byte[] json = Files.readAllBytes(
+          Paths.get(getClass().getClassLoader().getResource(fixture).toURI()));
+
+      Assert.assertEquals(fixture, strings(ProcessorSelector.process(Type.JSON, json)), strings(
+          JsonStreamParser.parse(new StringReader(new String(json, StandardCharsets.UTF_8)))));
+    }
+  }
+
+  @Test
+  public void testFlattensNestedValues() throws Exception {
+
+    Map<String, Object> configs =
+        JsonStreamParser.parse(new StringReader("{\"a\":{\"b\":[\"x\",{\"c\":1},[true]],"
+            + "\"d\":null,\"e\":\"q\\\"\\u0041\"}}"));
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("a.b[0]", "x");
+    expected.put("a.b[1].c", "1");
+    expected.put("a.b[2][0]", "true");
+    expected.put("a.e", "q\"A");
+
+    Assert.assertEquals(expected, configs);
+  }
+
+  @Test
+  public void testAcceptsJsonLiterals() throws Exception {
+
+    for (String literal : new String[] {"true", "false", "0", "-0.5", "12e3", "1.5E-7", "-10"}) {
+      Assert.assertEquals(literal,
+          JsonStreamParser.parse(new StringReader("{\"a\":" + literal + "}")).get("a"));
+    }
+  }
+
+  @Test
+  public void testRejectsInvalidLiterals() throws Exception {
+
+    for (String literal : new String[] {"tru", "abc", "1.2.3", "01", "-", "1e", ".5", "+1",
+        "NaN", "True", "nul"}) {
+      try {
+        JsonStreamParser.parse(new StringReader("{\"a\":" + literal + "}"));
+        Assert.fail("Accepted " + literal);
+      } catch (IOException e) {
+        // expected
+      }
+    }
+  }
+
+  /**
+   * Nulls can't be held as properties, both sides drop them.
+   */
+  private static Map<String, String> strings(Map<String, Object> configs) {
+
+    Map<String, String> strings = new HashMap<>();
+
+    configs.forEach((k, v) -> {
+      if (v != null)
+        strings.put(k, String.valueOf(v));
+    });
+
+    return strings;
+  }
+}
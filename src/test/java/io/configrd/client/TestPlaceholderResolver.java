@@ -0,0 +1,105 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPlaceholderResolver {
+
+  private final PlaceholderResolver resolver = new PlaceholderResolver();
+
+  @Test
+  public void testFillsNestedPlaceholders() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("property.1.name", "simple");
+    values.put("property.3.name", "michelangello");
+    values.put("property.4.name", "${property.1.name}-${property.3.name}");
+    values.put("property.6.name", "[${property.4.name}]");
+
+    Map<String, Object> filled = resolver.resolve(values);
+
+    Assert.assertEquals("simple-michelangello", filled.get("property.4.name"));
+    Assert.assertEquals("[simple-michelangello]", filled.get("property.6.name"));
+    Assert.assertEquals("${property.1.name}-${property.3.name}", values.get("property.4.name"));
+  }
+
+  @Test
+  public void testMissingValueLeftAsIs() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("property.3.name", "michelangello");
+    values.put("property.5.name", "${property.1.notexsts}-${property.3.name}");
+
+    Assert.assertEquals("${property.1.notexsts}-michelangello",
+        resolver.resolve(values).get("property.5.name"));
+
+    values.put("property.1.notexsts", "exists");
+    Assert.assertEquals("exists-michelangello", resolver.resolve(values).get("property.5.name"));
+  }
+
+  @Test
+  public void testOnlyChangedInputsReResolved() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("a", "1");
+    values.put("b", "2");
+    values.put("uses.a", "${a}");
+    values.put("uses.b", "${b}");
+
+    Map<String, Object> first = resolver.resolve(values);
+
+    values.put("a", "10");
+    Map<String, Object> second = resolver.resolve(new HashMap<>(values));
+
+    Assert.assertEquals("10", second.get("uses.a"));
+    Assert.assertNotSame(first.get("uses.a"), second.get("uses.a"));
+    Assert.assertSame(first.get("uses.b"), second.get("uses.b"));
+
+    values.remove("a");
+    Assert.assertEquals("${a}", resolver.resolve(values).get("uses.a"));
+  }
+
+  @Test
+  public void testCycleLeftUnresolved() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("a", "${b}");
+    values.put("b", "x${a}");
+    values.put("c", "${c}");
+    values.put("d", "ok");
+
+    Map<String, Object> filled = resolver.resolve(values);
+
+    Assert.assertEquals("${b}", filled.get("a"));
+    Assert.assertEquals("x${a}", filled.get("b"));
+    Assert.assertEquals("${c}", filled.get("c"));
+    Assert.assertEquals("ok", filled.get("d"));
+  }
+
+  @Test
+  public void testCycleLeftAsRawWhateverOrder() throws Exception {
+
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("uses.c", "[${c}]");
+    values.put("c", "${a}");
+    values.put("b", "x${b}${c}");
+    values.put("a", "${b}-${d}");
+    values.put("d", "ok");
+
+    Map<String, Object> filled = resolver.resolve(values);
+
+    Assert.assertEquals("${b}-${d}", filled.get("a"));
+    Assert.assertEquals("x${b}${c}", filled.get("b"));
+    Assert.assertEquals("${a}", filled.get("c"));
+    Assert.assertEquals("[${a}]", filled.get("uses.c"));
+
+    values.put("d", "changed");
+    filled = resolver.resolve(values);
+
+    Assert.assertEquals("${b}-${d}", filled.get("a"));
+    Assert.assertEquals("[${a}]", filled.get("uses.c"));
+  }
+}
@@ -0,0 +1,120 @@
+package io.configrd.client;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPropertyHandle {
+
+  private StubConfigServer server;
+
+  private ConfigClient.ConfigrdServerClientBuilder client;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    client = ConfigClient.server(server.uri());
+  }
+
+  private final RefreshScheduler scheduler = new RefreshScheduler();
+
+  @After
+  public void teardown() {
+    scheduler.shutdown();
+    server.stop();
+  }
+
+  @Test
+  public void testTypedAccessorsAndHandles() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/nested").build();
+
+    Assert.assertEquals(5432, config.getInt("db.primary.port", 0));
+    Assert.assertEquals(5432L, config.getLong("db.primary.port", 0L));
+    Assert.assertEquals(7, config.getInt("db.primary.missing", 7));
+    Assert.assertEquals(7, config.getInt("db.primary.host", 7));
+    Assert.assertTrue(config.getBoolean("db.primary.missing", true));
+    Assert.assertEquals(Duration.ofMillis(5432), config.getDuration("db.primary.port", null));
+    Assert.assertEquals("fallback", config.getProperty("unset", String.class, "fallback"));
+
+    IntProperty port = config.intProperty("db.primary.port", 0);
+    Property<String> host = config.property("db.primary.host", String.class, "none");
+    Assert.assertEquals(5432, port.get());
+    Assert.assertEquals("db-1", host.get());
+
+    Map<String, Object> next = new HashMap<>();
+    next.put("db.primary.port", "6543");
+    config.apply(next);
+
+    Assert.assertEquals(6543, port.get());
+    Assert.assertEquals("none", host.get());
+  }
+
+  @Test
+  public void testStrictAccessorsLeaveGetPropertyLenient() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/nested").build();
+
+    Map<String, Object> next = new HashMap<>();
+    next.put("padded", " 42 ");
+    next.put("word", "abc");
+    next.put("flag", "yes");
+    next.put("overflow", "999999999999999d");
+    config.apply(next);
+
+    Assert.assertEquals(42, config.getInt("padded", 0));
+    Assert.assertEquals(7, config.getInt("word", 7));
+    Assert.assertEquals(Integer.valueOf(0), config.getProperty("word", int.class));
+    Assert.assertTrue(config.getBoolean("flag", false));
+    Assert.assertEquals(Boolean.FALSE, config.getProperty("word", boolean.class));
+    Assert.assertEquals(Duration.ofSeconds(1),
+        config.getDuration("overflow", Duration.ofSeconds(1)));
+    Assert.assertEquals(7, config.intProperty("word", 7).get());
+  }
+
+  @Test
+  public void testParseDuration() throws Exception {
+
+    Assert.assertEquals(Duration.ofSeconds(30), Snapshot.parseDuration("PT30S"));
+    Assert.assertEquals(Duration.ofMillis(500), Snapshot.parseDuration("500ms"));
+    Assert.assertEquals(Duration.ofMinutes(5), Snapshot.parseDuration("5m"));
+    Assert.assertEquals(Duration.ofDays(2), Snapshot.parseDuration("2 d"));
+    Assert.assertEquals(Duration.ofMillis(250), Snapshot.parseDuration("250"));
+  }
+
+  @Test
+  public void testHandlesKeepTheirConfigRefreshing() throws Exception {
+
+    Map<String, Object> values = new ConcurrentHashMap<>();
+    values.put("pool.size", "10");
+
+    ConfigClient.ConfigImpl config =
+        new ConfigClient().new ConfigImpl("test", () -> new HashMap<>(values));
+    scheduler.schedule("source", config, 50);
+
+    IntProperty size = config.intProperty("pool.size", 0);
+    Assert.assertEquals(10, size.get());
+
+    // The scheduler holds configs weakly, only the handle keeps this one
+    config = null;
+
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+
+    values.put("pool.size", "20");
+    StubConfigServer.await(() -> size.get() == 20);
+
+    Assert.assertEquals(20, size.get());
+    Assert.assertEquals(1, scheduler.size());
+  }
+
+}
@@ -0,0 +1,105 @@
+package io.configrd.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPushSubscriber {
+
+  private StubConfigServer server;
+
+  private ConfigClient.ConfigrdServerClientBuilder client;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    client = ConfigClient.server(server.uri());
+  }
+
+  @After
+  public void teardown() {
+    server.stop();
+  }
+
+  @Test
+  public void testPushAppliesUpdatesAsTheyArrive() throws Exception {
+
+    server.pushing.set(true);
+
+    ConfigClient.ServerConfigImpl config =
+        (ConfigClient.ServerConfigImpl) client.path("env/dev/simple").push().build();
+
+    StubConfigServer.await(() -> config.getPush().isConnected() && !server.streams.isEmpty());
+    Assert.assertTrue(config.getPush().isConnected());
+
+    server.version.incrementAndGet();
+    server.publish(": keep-alive\n\n");
+    server.publish("event: changed\ndata: v2\n\n");
+
+    StubConfigServer
+        .await(() -> "value-2".equals(config.getProperty("property.3.name", String.class)));
+    Assert.assertEquals("value-2", config.getProperty("property.3.name", String.class));
+
+    config.close();
+    StubConfigServer.await(() -> !config.getPush().isConnected());
+    Assert.assertFalse(config.getPush().isConnected());
+  }
+
+  @Test
+  public void testPushFallsBackToPollingWhenDisconnected() throws Exception {
+
+    server.pushing.set(true);
+
+    ConfigClient.ConfigrdServerClientBuilder builder = client.path("env/dev/simple").push();
+    builder.reconnectMillis = 60_000;
+    ConfigClient.ServerConfigImpl config =
+        (ConfigClient.ServerConfigImpl) builder.refresh(1).build();
+
+    StubConfigServer.await(() -> config.getPush().isConnected() && !server.streams.isEmpty());
+
+    server.disconnect();
+    server.version.incrementAndGet();
+
+    StubConfigServer
+        .await(() -> "value-2".equals(config.getProperty("property.3.name", String.class)));
+    Assert.assertEquals("value-2", config.getProperty("property.3.name", String.class));
+    Assert.assertFalse(config.getPush().isConnected());
+
+    config.close();
+  }
+
+  @Test
+  public void testPushPollsServerWithoutEvents() throws Exception {
+
+    ConfigClient.ServerConfigImpl config =
+        (ConfigClient.ServerConfigImpl) client.path("env/dev/simple").push().refresh(1).build();
+
+    server.version.incrementAndGet();
+
+    StubConfigServer
+        .await(() -> "value-2".equals(config.getProperty("property.3.name", String.class)));
+    Assert.assertEquals("value-2", config.getProperty("property.3.name", String.class));
+    Assert.assertFalse(config.getPush().isConnected());
+
+    config.close();
+  }
+
+  @Test
+  public void testPushNotRetriedAgainstServerWithoutEvents() throws Exception {
+
+    ConfigClient.ConfigrdServerClientBuilder builder = client.path("env/dev/simple").push();
+    builder.reconnectMillis = 10;
+    ConfigClient.ServerConfigImpl config =
+        (ConfigClient.ServerConfigImpl) builder.refresh(1).build();
+
+    StubConfigServer.await(() -> server.subscriptions.get() > 0);
+    Thread.sleep(500);
+
+    Assert.assertEquals(1, server.subscriptions.get());
+    Assert.assertFalse(config.getPush().isConnected());
+
+    config.close();
+  }
+
+}
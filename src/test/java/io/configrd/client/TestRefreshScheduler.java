@@ -0,0 +1,128 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRefreshScheduler {
+
+  private final RefreshScheduler scheduler = new RefreshScheduler();
+
+  @After
+  public void teardown() {
+    scheduler.shutdown();
+  }
+
+  private static ConfigClient.ConfigImpl config(AtomicInteger fetches) {
+    return new ConfigClient().new ConfigImpl("test", () -> {
+      Map<String, Object> values = new HashMap<>();
+      values.put("fetch", String.valueOf(fetches.incrementAndGet()));
+      return values;
+    });
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  public void testRefreshesPeriodically() throws Exception {
+
+    AtomicInteger fetches = new AtomicInteger();
+    ConfigClient.ConfigImpl config = config(fetches);
+
+    scheduler.schedule("source", config, 50);
+
+    await(() -> fetches.get() >= 3);
+    Assert.assertTrue(fetches.get() >= 3);
+    Assert.assertNotEquals("1", config.getProperty("fetch", String.class));
+  }
+
+  @Test
+  public void testConfigsOnSameSourceShareOneFetch() throws Exception {
+
+    AtomicInteger leading = new AtomicInteger();
+    AtomicInteger following = new AtomicInteger();
+    ConfigClient.ConfigImpl leader = config(leading);
+    ConfigClient.ConfigImpl follower = config(following);
+
+    scheduler.schedule("source", leader, 50);
+    scheduler.schedule("source", follower, 50);
+    Assert.assertEquals(1, scheduler.size());
+
+    await(() -> leading.get() >= 3);
+
+    // Only the initial load went to the follower's own fetcher
+    Assert.assertEquals(1, following.get());
+    Assert.assertNotEquals("1", follower.getProperty("fetch", String.class));
+
+    // Sources or periods differing aren't coalesced
+    scheduler.schedule("other", config(new AtomicInteger()), 50);
+    scheduler.schedule("source", config(new AtomicInteger()), 60);
+    Assert.assertEquals(3, scheduler.size());
+  }
+
+  @Test
+  public void testEveryPeriodIsJittered() throws Exception {
+
+    Set<Long> delays = new HashSet<>();
+
+    for (int i = 0; i < 100; i++) {
+      long delay = RefreshScheduler.delay(10_000);
+      Assert.assertTrue(delay >= 9_000 && delay <= 11_000);
+      delays.add(delay);
+    }
+
+    Assert.assertTrue(delays.size() > 1);
+  }
+
+  @Test
+  public void testShutdownStopsRefreshes() throws Exception {
+
+    AtomicInteger fetches = new AtomicInteger();
+    scheduler.schedule("source", config(fetches), 50);
+
+    await(() -> fetches.get() >= 2);
+    scheduler.shutdown();
+
+    Thread.sleep(100);
+    int stopped = fetches.get();
+    Thread.sleep(200);
+
+    Assert.assertEquals(stopped, fetches.get());
+    Assert.assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  public void testClosedAndCollectedConfigsAreDropped() throws Exception {
+
+    AtomicInteger closedFetches = new AtomicInteger();
+    ConfigClient.ConfigImpl closed = config(closedFetches);
+    scheduler.schedule("closed", closed, 50);
+    closed.close();
+
+    AtomicInteger collectedFetches = new AtomicInteger();
+    scheduler.schedule("collected", config(collectedFetches), 50);
+
+    for (int i = 0; i < 100 && scheduler.size() > 0; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+
+    Assert.assertEquals(0, scheduler.size());
+    Assert.assertEquals(1, closedFetches.get());
+
+    int dropped = collectedFetches.get();
+    Thread.sleep(200);
+    Assert.assertEquals(dropped, collectedFetches.get());
+  }
+
+}
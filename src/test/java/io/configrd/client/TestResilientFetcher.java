@@ -0,0 +1,178 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestResilientFetcher {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private final AtomicInteger faults = new AtomicInteger();
+
+  private final AtomicInteger version = new AtomicInteger(1);
+
+  /**
+   * Fails while faults are left, otherwise returns the current version.
+   */
+  private Map<String, Object> fetch() {
+
+    calls.incrementAndGet();
+
+    if (faults.getAndUpdate(f -> Math.max(0, f - 1)) > 0)
+      throw new IllegalStateException("Unavailable");
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("version", String.valueOf(version.get()));
+    return values;
+  }
+
+  private static void refresh(ConfigClient.ConfigImpl config) {
+    try {
+      config.refresh();
+    } catch (IllegalStateException e) {
+      // Failed or failing fast, the last loaded configs are kept
+    }
+  }
+
+  @Test
+  public void testRetriesWithBackoff() throws Exception {
+
+    faults.set(2);
+
+    ConfigFetcher fetcher =
+        ResilientFetcher.wrap("test", this::fetch, new RetryPolicy(3, 10), null);
+
+    Assert.assertEquals("1", fetcher.fetch().get("version"));
+    Assert.assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testGivesUpAfterLastAttempt() throws Exception {
+
+    faults.set(5);
+
+    ConfigFetcher fetcher =
+        ResilientFetcher.wrap("test", this::fetch, new RetryPolicy(3, 10), null);
+
+    try {
+      fetcher.fetch();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(3, calls.get());
+    }
+  }
+
+  @Test
+  public void testIllegalArgumentsNotRetried() throws Exception {
+
+    CircuitBreaker breaker = new CircuitBreaker(1, 60_000);
+    ConfigFetcher fetcher = ResilientFetcher.wrap("test", () -> {
+      calls.incrementAndGet();
+      throw new IllegalArgumentException("Unknown host");
+    }, new RetryPolicy(3, 10), breaker);
+
+    try {
+      fetcher.fetch();
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(1, calls.get());
+      Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+  }
+
+  @Test
+  public void testUnwrappedWithoutRetriesOrBreaker() throws Exception {
+
+    ConfigFetcher fetcher = this::fetch;
+    Assert.assertSame(fetcher, ResilientFetcher.wrap("test", fetcher, RetryPolicy.NONE, null));
+  }
+
+  @Test
+  public void testCircuitBreakerServesLastSnapshotWhileOpen() throws Exception {
+
+    CircuitBreaker breaker = new CircuitBreaker(2, 200);
+    ConfigClient.ConfigImpl config = new ConfigClient().new ConfigImpl("test",
+        ResilientFetcher.wrap("test", this::fetch, RetryPolicy.NONE, breaker));
+
+    faults.set(100);
+    refresh(config);
+    refresh(config);
+    Assert.assertEquals(3, calls.get());
+    Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    // Open, the source isn't called
+    refresh(config);
+    refresh(config);
+    Assert.assertEquals(3, calls.get());
+    Assert.assertEquals("1", config.getProperty("version", String.class));
+
+    faults.set(0);
+    version.incrementAndGet();
+    Thread.sleep(250);
+
+    refresh(config);
+    Assert.assertEquals(4, calls.get());
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    Assert.assertEquals("2", config.getProperty("version", String.class));
+  }
+
+  @Test
+  public void testFailedTrialFetchReopensCircuit() throws Exception {
+
+    CircuitBreaker breaker = new CircuitBreaker(1, 50);
+    AtomicInteger errors = new AtomicInteger(1);
+
+    ConfigFetcher fetcher = ResilientFetcher.wrap("test", () -> {
+      if (errors.getAndDecrement() > 0)
+        throw new StackOverflowError();
+      return fetch();
+    }, RetryPolicy.NONE, breaker);
+
+    faults.set(1);
+    errors.set(0);
+
+    try {
+      fetcher.fetch();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    Thread.sleep(60);
+    errors.set(1);
+
+    // An error, not just an exception, thrown by the trial fetch opens the circuit again
+    try {
+      fetcher.fetch();
+      Assert.fail();
+    } catch (StackOverflowError e) {
+      Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    Assert.assertFalse(breaker.allow());
+
+    Thread.sleep(60);
+
+    Assert.assertEquals("1", fetcher.fetch().get("version"));
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void testBackoffIsExponentialWithJitter() throws Exception {
+
+    RetryPolicy policy = new RetryPolicy(5, 100);
+
+    for (int i = 0; i < 20; i++) {
+      long first = policy.backoff(1);
+      long third = policy.backoff(3);
+      Assert.assertTrue(first >= 50 && first <= 100);
+      Assert.assertTrue(third >= 200 && third <= 400);
+    }
+
+    Assert.assertTrue(policy.backoff(40) <= 60_000);
+  }
+
+}
@@ -0,0 +1,133 @@
+package io.configrd.client;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSharedFetcher {
+
+  private StubConfigServer server;
+
+  private ConfigClient.ConfigrdServerClientBuilder client;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    client = ConfigClient.server(server.uri());
+  }
+
+  @After
+  public void teardown() {
+    server.stop();
+  }
+
+  @Test
+  public void testConfigsOnSameSourceShareFetches() throws Exception {
+
+    String uri = server.uri();
+    List<ConfigClient.ConfigBuilder> builders = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      builders.add(ConfigClient.server(uri).path("env/dev/simple"));
+    }
+
+    server.delay.set(200);
+    List<ClientConfig> configs = new ArrayList<>();
+
+    for (CompletableFuture<ClientConfig> f : ConfigClient.buildAll(builders)) {
+      configs.add(f.get());
+    }
+
+    // Builds while the first fetch was in flight joined it, later ones revalidated it
+    Assert.assertEquals(1, server.fetches.get() - server.notModified.get());
+
+    for (ClientConfig c : configs) {
+      Assert.assertEquals("value-1", c.getProperty("property.3.name", String.class));
+    }
+  }
+
+  @Test
+  public void testConfigsWithOtherSettingsDontShareFetches() throws Exception {
+
+    String uri = server.uri();
+
+    ClientConfig plain = ConfigClient.server(uri).path("env/dev/simple").build();
+    ClientConfig retried = ConfigClient.server(uri).path("env/dev/simple").retry(2, 10).build();
+
+    // Neither revalidated the other's configs
+    Assert.assertEquals(2, server.fetches.get());
+    Assert.assertEquals(0, server.notModified.get());
+
+    plain.close();
+    retried.close();
+  }
+
+  @Test
+  public void testCloseReleasesSource() throws Exception {
+
+    ConfigClient.ConfigImpl config =
+        (ConfigClient.ConfigImpl) client.path("env/dev/simple").build();
+    config.close();
+
+    server.version.incrementAndGet();
+    config.refresh();
+
+    Assert.assertEquals(1, server.fetches.get());
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+
+    // Last share released, a new config doesn't revalidate the closed config's fetch
+    ClientConfig next = client.build();
+    Assert.assertNull(server.ifNoneMatch.get());
+    Assert.assertEquals("value-2", next.getProperty("property.3.name", String.class));
+  }
+
+  @Test
+  public void testConfigsWithOtherSettingsRefreshedApart() throws Exception {
+
+    Path first = Files.createTempDirectory("configrd-cache");
+    Path second = Files.createTempDirectory("configrd-cache");
+
+    try {
+
+      ClientConfig one = client.path("env/dev/simple").cacheDir(first.toString()).refresh(1)
+          .build();
+      ClientConfig other = client.path("env/dev/simple").cacheDir(second.toString()).refresh(1)
+          .build();
+
+      server.version.incrementAndGet();
+
+      String url = server.uri() + "/env/dev/simple";
+      SnapshotCache cached = new SnapshotCache(second, url);
+
+      // Had they been refreshed together the second config's fetcher would never run
+      StubConfigServer.await(() -> cached.read()
+          .map(e -> "value-2".equals(e.configs.get("property.3.name"))).orElse(false));
+
+      Assert.assertEquals("value-2", one.getProperty("property.3.name", String.class));
+      Assert.assertEquals("value-2", other.getProperty("property.3.name", String.class));
+      Assert.assertEquals("value-2",
+          new SnapshotCache(first, url).read().get().configs.get("property.3.name"));
+      Assert.assertEquals("value-2", cached.read().get().configs.get("property.3.name"));
+
+      one.close();
+      other.close();
+
+    } finally {
+      for (Path dir : new Path[] {first, second}) {
+        try (Stream<Path> files = Files.walk(dir)) {
+          files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+      }
+    }
+  }
+
+}
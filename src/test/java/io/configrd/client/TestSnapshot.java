@@ -0,0 +1,31 @@
+package io.configrd.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSnapshot {
+
+  @Test
+  public void testConvertedValuesCachedPerSnapshot() throws Exception {
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("pool.size", "1000");
+
+    ConfigClient.ConfigImpl config =
+        new ConfigClient().new ConfigImpl("test", () -> new HashMap<>(values));
+
+    Integer first = config.getProperty("pool.size", Integer.class);
+    Assert.assertEquals(Integer.valueOf(1000), first);
+    Assert.assertSame(first, config.getProperty("pool.size", Integer.class));
+
+    values.put("pool.size", "2000");
+    config.refresh();
+
+    Integer second = config.getProperty("pool.size", Integer.class);
+    Assert.assertEquals(Integer.valueOf(2000), second);
+    Assert.assertSame(second, config.getProperty("pool.size", Integer.class));
+  }
+
+}
@@ -0,0 +1,105 @@
+package io.configrd.client;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSnapshotCache {
+
+  private Path dir;
+
+  private StubConfigServer server;
+
+  @Before
+  public void setup() throws Exception {
+    dir = Files.createTempDirectory("configrd-cache");
+    server = new StubConfigServer();
+  }
+
+  @After
+  public void teardown() throws Exception {
+
+    server.stop();
+
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  @Test
+  public void testWrittenConfigsReadBack() throws Exception {
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put("db.host", "db-1");
+    configs.put("greeting", "gr\u00fc\u00df dich");
+    configs.put("blank", null);
+
+    SnapshotCache cache = new SnapshotCache(dir, "http://localhost/configrd/v1/env/dev");
+    Assert.assertFalse(cache.read().isPresent());
+
+    cache.write("\"v1\"", configs);
+    SnapshotCache.Entry entry = cache.read().get();
+
+    Assert.assertEquals("\"v1\"", entry.etag);
+    Assert.assertEquals("db-1", entry.configs.get("db.host"));
+    Assert.assertEquals("gr\u00fc\u00df dich", entry.configs.get("greeting"));
+    Assert.assertEquals("", entry.configs.get("blank"));
+    Assert.assertEquals(3, entry.configs.size());
+
+    cache.write(null, new HashMap<>());
+    entry = cache.read().get();
+
+    Assert.assertNull(entry.etag);
+    Assert.assertTrue(entry.configs.isEmpty());
+  }
+
+  @Test
+  public void testCachesOfOtherUrlsDontClash() throws Exception {
+
+    Map<String, Object> configs = new HashMap<>();
+    configs.put("env", "dev");
+
+    new SnapshotCache(dir, "http://localhost/configrd/v1/env/dev").write(null, configs);
+
+    Assert.assertFalse(
+        new SnapshotCache(dir, "http://localhost/configrd/v1/env/prod").read().isPresent());
+  }
+
+  @Test
+  public void testUnreadableCacheIgnored() throws Exception {
+
+    SnapshotCache cache = new SnapshotCache(dir, "http://localhost/configrd/v1/env/dev");
+
+    Files.write(cache.getFile(), "not a cache".getBytes(StandardCharsets.UTF_8));
+    Assert.assertFalse(cache.read().isPresent());
+
+    // Truncated after the header
+    Files.write(cache.getFile(), new byte[] {'C', 'F', 'G', 'D', 0, 0, 0, 1, 0, 0});
+    Assert.assertFalse(cache.read().isPresent());
+  }
+
+  @Test
+  public void testStartsFromCacheWhenServerDown() throws Exception {
+
+    String cacheDir = dir.toString();
+
+    ClientConfig config =
+        ConfigClient.server(server.uri()).cacheDir(cacheDir).path("env/dev/simple").build();
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+
+    server.stop();
+
+    config = ConfigClient.server(server.uri()).cacheDir(cacheDir).path("env/dev/simple").build();
+    Assert.assertEquals("value-1", config.getProperty("property.3.name", String.class));
+  }
+
+}
@@ -0,0 +1,184 @@
+package io.configrd.client.discovery;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Test;
+import io.configrd.core.Environment;
+
+public class TestHostsLookup {
+
+  private final Map<String, Object> hosts = new HashMap<>();
+
+  {
+    hosts.put("michelangello", "classpath:/env/dev/");
+    hosts.put("DEV", "classpath:/env/dev/");
+    hosts.put("QA", "classpath:/env/dev/custom");
+    hosts.put("web-*", "classpath:/env/web");
+    hosts.put("web-*.prod", "classpath:/env/prod");
+    hosts.put("qa?", "classpath:/env/qa");
+    hosts.put("*", "classpath:/env/default");
+  }
+
+  private final HostsLookup lookup = HostsLookup.compile(hosts);
+
+  @Test
+  public void testExactHostThenEnv() throws Exception {
+
+    Assert.assertEquals(URI.create("classpath:/env/dev/"),
+        lookup.lookup("Michelangello", "QA").get());
+    Assert.assertEquals(URI.create("classpath:/env/dev/custom"),
+        lookup.lookup("unknown", "qa").get());
+  }
+
+  @Test
+  public void testMostSpecificPatternWins() throws Exception {
+
+    Assert.assertEquals(URI.create("classpath:/env/prod"),
+        lookup.lookup("web-1.prod", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/web"), lookup.lookup("web-1.dev", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/qa"), lookup.lookup("other", "qa2").get());
+  }
+
+  @Test
+  public void testFallsBackToCatchAll() throws Exception {
+
+    Assert.assertEquals(URI.create("classpath:/env/default"),
+        lookup.lookup("other", "other").get());
+
+    hosts.remove("*");
+    Assert.assertFalse(HostsLookup.compile(hosts).lookup("other", null).isPresent());
+  }
+
+  @Test
+  public void testRegexAfterPatterns() throws Exception {
+
+    hosts.put("~api-[0-9a-f]{4}-.*", "classpath:/env/api");
+    hosts.put("~(?i)API-XYZ", "classpath:/env/xyz");
+    hosts.put("api-7f9c-*", "classpath:/env/api-7f9c");
+    HostsLookup lookup = HostsLookup.compile(hosts);
+
+    Assert.assertEquals(URI.create("classpath:/env/api-7f9c"),
+        lookup.lookup("api-7f9c-xyz", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/api"), lookup.lookup("API-0a1b-x", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/xyz"), lookup.lookup("api-xyz", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/default"),
+        lookup.lookup("api-zzzz-x", null).get());
+  }
+
+  @Test
+  public void testHostPatternsBeforeEnvPatterns() throws Exception {
+
+    hosts.put("~api-[0-9a-f]{4}-.*", "classpath:/env/api");
+    HostsLookup lookup = HostsLookup.compile(hosts);
+
+    // The environment matches a more specific pattern, the host is still tried first
+    Assert.assertEquals(URI.create("classpath:/env/web"),
+        lookup.lookup("web-9", "web-1.prod").get());
+    Assert.assertEquals(URI.create("classpath:/env/api"),
+        lookup.lookup("api-0a1b-x", "qa2").get());
+    Assert.assertEquals(URI.create("classpath:/env/prod"),
+        lookup.lookup("other", "web-1.prod").get());
+  }
+
+  @Test
+  public void testNamesDifferingInCaseKeepFirstInKeyOrder() throws Exception {
+
+    for (boolean reversed : new boolean[] {false, true}) {
+
+      Map<String, Object> mappings = new LinkedHashMap<>();
+
+      if (reversed) {
+        mappings.put("prod-host", "classpath:/env/lower");
+        mappings.put("app-*", "classpath:/env/lower");
+      }
+
+      mappings.put("Prod-Host", "classpath:/env/upper");
+      mappings.put("App-*", "classpath:/env/upper");
+
+      if (!reversed) {
+        mappings.put("prod-host", "classpath:/env/lower");
+        mappings.put("app-*", "classpath:/env/lower");
+      }
+
+      HostsLookup lookup = HostsLookup.compile(mappings);
+
+      Assert.assertEquals(URI.create("classpath:/env/upper"),
+          lookup.lookup("prod-host", null).get());
+      Assert.assertEquals(URI.create("classpath:/env/upper"), lookup.lookup("app-1", null).get());
+    }
+  }
+
+  @Test
+  public void testLiteralPrefixOfRegex() throws Exception {
+
+    Assert.assertEquals("api-", HostsLookup.literalPrefix("^API-[0-9a-f]+"));
+    Assert.assertEquals("ap", HostsLookup.literalPrefix("api?-.*"));
+    Assert.assertEquals("web", HostsLookup.literalPrefix("web\\.prod"));
+    Assert.assertEquals("", HostsLookup.literalPrefix("api|web"));
+    Assert.assertEquals("", HostsLookup.literalPrefix("(?i)api"));
+  }
+
+  @Test
+  public void testManyGeneratedHosts() throws Exception {
+
+    for (int i = 0; i < 20_000; i++) {
+      hosts.put("api-" + Integer.toHexString(i) + "-xyz", "classpath:/env/api/" + i);
+      hosts.put("job-" + Integer.toHexString(i) + "-*", "classpath:/env/job/" + i);
+    }
+
+    HostsLookup lookup = HostsLookup.compile(hosts);
+
+    Assert.assertEquals(URI.create("classpath:/env/api/4242"),
+        lookup.lookup("api-" + Integer.toHexString(4242) + "-xyz", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/job/4242"),
+        lookup.lookup("job-" + Integer.toHexString(4242) + "-1", null).get());
+    Assert.assertEquals(URI.create("classpath:/env/web"), lookup.lookup("web-2", null).get());
+  }
+
+  @Test
+  public void testAutomatonMatchesManyRules() throws Exception {
+
+    List<String> rules = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      rules.add("web-" + i + "-*.prod");
+      rules.add("*-" + i + "-?.qa");
+    }
+
+    // Needs more states than one automaton may have, matched on its own
+    rules.add("*a??????????????");
+
+    HostAutomaton automaton = new HostAutomaton(rules);
+
+    Assert.assertArrayEquals(new int[] {2 * 42}, automaton.match("web-42-x.prod"));
+    Assert.assertArrayEquals(new int[] {2 * 7 + 1}, automaton.match("api-7-1.qa"));
+    Assert.assertArrayEquals(new int[] {4000}, automaton.match("xa12345678901234"));
+    Assert.assertArrayEquals(new int[] {2 * 3, 4000}, automaton.match("web-3-xa123456789.prod"));
+    Assert.assertEquals(0, automaton.match("web-42.prod").length);
+    Assert.assertEquals(0, automaton.match("api-7-12.qa").length);
+  }
+
+  @Test
+  public void testStrategyRecompilesChangedMappings() throws Exception {
+
+    HostsFileDiscoveryStrategy strategy = new HostsFileDiscoveryStrategy();
+
+    Map<String, Object> env = new HashMap<>();
+    env.put(Environment.HOST_NAME, "michelangello");
+
+    Optional<URI> uri = strategy.lookupConfigPath(hosts, env);
+    Assert.assertEquals(URI.create("classpath:/env/dev/"), uri.get());
+
+    // Mappings read again from a changed hosts file come as a new map
+    Map<String, Object> changed = new HashMap<>(hosts);
+    changed.put("michelangello", "classpath:/env/moved");
+    Assert.assertEquals(URI.create("classpath:/env/moved"),
+        strategy.lookupConfigPath(changed, env).get());
+  }
+}
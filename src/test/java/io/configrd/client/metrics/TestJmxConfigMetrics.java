@@ -0,0 +1,107 @@
+package io.configrd.client.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import io.configrd.client.ClientConfig;
+import io.configrd.client.ConfigClient;
+import io.configrd.client.StubConfigServer;
+import io.configrd.client.metrics.ConfigMetrics.Stage;
+
+public class TestJmxConfigMetrics {
+
+  private final MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+
+  private final JmxConfigMetrics metrics = new JmxConfigMetrics(mbeans);
+
+  private StubConfigServer server;
+
+  @Before
+  public void setup() throws Exception {
+    server = new StubConfigServer();
+    ConfigClient.setMetrics(metrics);
+  }
+
+  @After
+  public void teardown() {
+    ConfigClient.setMetrics(null);
+    server.stop();
+  }
+
+  @Test
+  public void testStatsRecorded() throws Exception {
+
+    metrics.register("test", () -> 42);
+    metrics.refreshed("test", 3);
+    metrics.skipped("test");
+    metrics.failed("test", new RuntimeException());
+    metrics.bytesFetched("test", 100);
+    metrics.timing("test", Stage.FETCH, TimeUnit.MILLISECONDS.toNanos(5));
+
+    // Configs not registered aren't recorded
+    metrics.refreshed("other", 1);
+    Assert.assertNull(metrics.getStats("other"));
+
+    ConfigStats stats = metrics.getStats("test");
+    Assert.assertEquals(1, stats.getRefreshes());
+    Assert.assertEquals(1, stats.getSkipped());
+    Assert.assertEquals(1, stats.getFailures());
+    Assert.assertEquals(3, stats.getKeys());
+    Assert.assertEquals(100, stats.getBytesFetched());
+    Assert.assertEquals(42, stats.getSnapshotAgeMillis());
+    Assert.assertEquals(5.0, stats.getLastFetchMillis(), 0.001);
+
+    metrics.unregister("test");
+  }
+
+  @Test
+  public void testConfigsReportLoads() throws Exception {
+
+    ClientConfig config = ConfigClient.server(server.uri()).path("env/dev/simple").build();
+
+    ConfigStats stats = metrics.getStats(server.uri() + "/env/dev/simple");
+    Assert.assertEquals(1, stats.getRefreshes());
+    Assert.assertEquals(0, stats.getFailures());
+    Assert.assertEquals(1, stats.getKeys());
+    Assert.assertTrue(stats.getBytesFetched() > 0);
+    Assert.assertTrue(stats.getSnapshotAgeMillis() >= 0);
+
+    server.stop();
+
+    ClientConfig failed = ConfigClient.server(server.uri()).path("env/dev/flaky").build();
+    stats = metrics.getStats(server.uri() + "/env/dev/flaky");
+
+    Assert.assertEquals(0, stats.getRefreshes());
+    Assert.assertEquals(1, stats.getFailures());
+
+    config.close();
+    failed.close();
+  }
+
+  @Test
+  public void testMetricsUnregisteredOnClose() throws Exception {
+
+    ClientConfig first = ConfigClient.server(server.uri()).path("env/dev/simple").build();
+    ClientConfig second = ConfigClient.server(server.uri()).path("env/dev/simple").build();
+
+    String config = server.uri() + "/env/dev/simple";
+    ObjectName name =
+        new ObjectName("io.configrd:type=Config,name=" + ObjectName.quote(config));
+    Assert.assertTrue(mbeans.isRegistered(name));
+
+    first.close();
+    first.close();
+    Assert.assertTrue(mbeans.isRegistered(name));
+    Assert.assertNotNull(metrics.getStats(config));
+
+    second.close();
+    Assert.assertFalse(mbeans.isRegistered(name));
+    Assert.assertNull(metrics.getStats(config));
+  }
+
+}